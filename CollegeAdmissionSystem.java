@@ -1,22 +1,38 @@
 package com.college.admission;
 
+import com.college.admission.dao.Page;
+import com.college.admission.dao.RowHandler;
+import com.college.admission.service.AdmissionRunReport;
 import com.college.admission.service.AdmissionService;
+import com.college.admission.service.BulkImportService;
+import com.college.admission.service.CourseAdmissionResult;
+import com.college.admission.service.ExportReport;
+import com.college.admission.service.ImportReport;
+import com.college.admission.service.MeritRank;
+import com.college.admission.model.AdmissionStatistics;
 import com.college.admission.model.Student;
 import com.college.admission.model.Course;
 import com.college.admission.model.Application;
+import com.college.admission.model.ApplicationDetail;
 import com.college.admission.util.DatabaseConfig;
+import com.college.admission.util.EntityCache;
 
+import java.io.IOException;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Scanner;
 
 public class CollegeAdmissionSystem {
     private static AdmissionService admissionService;
+    private static BulkImportService importService;
     private static Scanner scanner;
+    private static final int PAGE_SIZE = 20;
     
     public static void main(String[] args) {
         admissionService = new AdmissionService();
+        importService = new BulkImportService(admissionService);
         scanner = new Scanner(System.in);
         
         // Test database connection
@@ -79,7 +95,8 @@ public class CollegeAdmissionSystem {
         System.out.println("3. Search Student by ID");
         System.out.println("4. Update Student");
         System.out.println("5. View Students by Category");
-        System.out.println("6. Back to Main Menu");
+        System.out.println("6. Import Students from CSV");
+        System.out.println("7. Back to Main Menu");
         
         int choice = getIntInput("Enter your choice: ");
         
@@ -100,6 +117,9 @@ public class CollegeAdmissionSystem {
                 viewStudentsByCategory();
                 break;
             case 6:
+                importStudents();
+                break;
+            case 7:
                 return;
             default:
                 System.out.println("Invalid choice.");
@@ -113,7 +133,8 @@ public class CollegeAdmissionSystem {
         System.out.println("3. View Active Courses");
         System.out.println("4. Update Course");
         System.out.println("5. View Courses by Department");
-        System.out.println("6. Back to Main Menu");
+        System.out.println("6. Import Course Catalogue from CSV");
+        System.out.println("7. Back to Main Menu");
         
         int choice = getIntInput("Enter your choice: ");
         
@@ -134,6 +155,9 @@ public class CollegeAdmissionSystem {
                 viewCoursesByDepartment();
                 break;
             case 6:
+                importCourses();
+                break;
+            case 7:
                 return;
             default:
                 System.out.println("Invalid choice.");
@@ -147,7 +171,8 @@ public class CollegeAdmissionSystem {
         System.out.println("3. View Applications by Student");
         System.out.println("4. View Applications by Course");
         System.out.println("5. Update Application Status");
-        System.out.println("6. Back to Main Menu");
+        System.out.println("6. Submit Applications with Preferences");
+        System.out.println("7. Back to Main Menu");
         
         int choice = getIntInput("Enter your choice: ");
         
@@ -168,6 +193,9 @@ public class CollegeAdmissionSystem {
                 updateApplicationStatus();
                 break;
             case 6:
+                submitApplicationsWithPreferences();
+                break;
+            case 7:
                 return;
             default:
                 System.out.println("Invalid choice.");
@@ -209,7 +237,9 @@ public class CollegeAdmissionSystem {
         System.out.println("1. Export Admission List to CSV");
         System.out.println("2. Export Merit List to CSV");
         System.out.println("3. View Statistics");
-        System.out.println("4. Back to Main Menu");
+        System.out.println("4. Export Merit Lists for All Courses");
+        System.out.println("5. Check Student Rank in Course");
+        System.out.println("6. Back to Main Menu");
         
         int choice = getIntInput("Enter your choice: ");
         
@@ -224,6 +254,12 @@ public class CollegeAdmissionSystem {
                 viewStatistics();
                 break;
             case 4:
+                exportAllMeritLists();
+                break;
+            case 5:
+                viewMeritRank();
+                break;
+            case 6:
                 return;
             default:
                 System.out.println("Invalid choice.");
@@ -264,9 +300,9 @@ public class CollegeAdmissionSystem {
     
     private static void viewAllStudents() throws SQLException {
         System.out.println("\n=== ALL STUDENTS ===");
-        List<Student> students = admissionService.getAllStudents();
+        Page<Student> page = admissionService.getStudentsPage(null, PAGE_SIZE);
         
-        if (students.isEmpty()) {
+        if (page.getItems().isEmpty()) {
             System.out.println("No students found.");
             return;
         }
@@ -275,11 +311,17 @@ public class CollegeAdmissionSystem {
                          "ID", "First Name", "Last Name", "Email", "Grade12%", "Category");
         System.out.println("-------------------------------------------------------------------------");
         
-        for (Student student : students) {
-            System.out.printf("%-5d %-15s %-15s %-25s %-10.2f %-10s%n",
-                             student.getStudentId(), student.getFirstName(), 
-                             student.getLastName(), student.getEmail(),
-                             student.getGrade12Percentage(), student.getCategory());
+        while (true) {
+            for (Student student : page.getItems()) {
+                System.out.printf("%-5d %-15s %-15s %-25s %-10.2f %-10s%n",
+                                 student.getStudentId(), student.getFirstName(), 
+                                 student.getLastName(), student.getEmail(),
+                                 student.getGrade12Percentage(), student.getCategory());
+            }
+            if (!page.hasNextPage() || !continueToNextPage()) {
+                return;
+            }
+            page = admissionService.getStudentsPage(page.getNextPageToken(), PAGE_SIZE);
         }
     }
     
@@ -356,6 +398,25 @@ public class CollegeAdmissionSystem {
         }
     }
     
+    private static void importStudents() throws SQLException {
+        String filename = getStringInput("Enter CSV filename: ");
+        try {
+            ImportReport report = importService.importStudents(filename);
+            System.out.println("Rows read: " + report.getRowsRead() + ", Inserted: " + report.getInserted() + 
+                               ", Rejected: " + report.getRejected() + 
+                               " (" + String.format("%.0f", report.getRowsPerSecond()) + " rows/s)");
+            List<ImportReport.RowError> errors = report.getErrors();
+            for (int i = 0; i < errors.size() && i < 20; i++) {
+                System.out.println("  " + errors.get(i));
+            }
+            if (report.getRejected() > 20) {
+                System.out.println("  ... and " + (report.getRejected() - 20) + " more rejected rows");
+            }
+        } catch (IOException e) {
+            System.err.println("Error importing students: " + e.getMessage());
+        }
+    }
+    
     // Course Management Methods
     private static void addCourse() throws SQLException {
         System.out.println("\n=== ADD NEW COURSE ===");
@@ -472,6 +533,25 @@ public class CollegeAdmissionSystem {
         }
     }
     
+    private static void importCourses() throws SQLException {
+        String filename = getStringInput("Enter catalogue CSV filename: ");
+        try {
+            ImportReport report = importService.importCourses(filename);
+            System.out.println("Rows read: " + report.getRowsRead() + ", Inserted: " + report.getInserted() + 
+                               ", Updated: " + report.getUpdated() + ", Unchanged: " + report.getUnchanged() + 
+                               ", Rejected: " + report.getRejected());
+            List<ImportReport.RowError> errors = report.getErrors();
+            for (int i = 0; i < errors.size() && i < 20; i++) {
+                System.out.println("  " + errors.get(i));
+            }
+            if (report.getRejected() > 20) {
+                System.out.println("  ... and " + (report.getRejected() - 20) + " more rejected rows");
+            }
+        } catch (IOException e) {
+            System.err.println("Error importing course catalogue: " + e.getMessage());
+        }
+    }
+    
     private static void viewCoursesByDepartment() throws SQLException {
         String department = getStringInput("Enter Department: ");
         List<Course> courses = admissionService.getCoursesByDepartment(department);
@@ -506,11 +586,36 @@ public class CollegeAdmissionSystem {
         System.out.println("Application submitted successfully with ID: " + applicationId);
     }
     
+    private static void submitApplicationsWithPreferences() throws SQLException {
+        System.out.println("\n=== SUBMIT APPLICATIONS WITH PREFERENCES ===");
+        
+        int studentId = getIntInput("Enter Student ID: ");
+        String input = getStringInput("Enter Course IDs in order of preference (comma separated): ");
+        
+        List<Integer> courseIds = new ArrayList<Integer>();
+        for (String part : input.split(",")) {
+            if (!part.trim().isEmpty()) {
+                try {
+                    courseIds.add(Integer.parseInt(part.trim()));
+                } catch (NumberFormatException e) {
+                    System.out.println("Invalid course ID: " + part.trim());
+                    return;
+                }
+            }
+        }
+        
+        List<Integer> applicationIds = admissionService.submitApplications(studentId, courseIds);
+        for (int i = 0; i < applicationIds.size(); i++) {
+            System.out.println("Preference " + (i + 1) + ": course " + courseIds.get(i) + 
+                               " -> application ID " + applicationIds.get(i));
+        }
+    }
+    
     private static void viewAllApplications() throws SQLException {
         System.out.println("\n=== ALL APPLICATIONS ===");
-        List<Application> applications = admissionService.getAllApplications();
+        Page<Application> page = admissionService.getApplicationsPage(null, PAGE_SIZE);
         
-        if (applications.isEmpty()) {
+        if (page.getItems().isEmpty()) {
             System.out.println("No applications found.");
             return;
         }
@@ -519,51 +624,60 @@ public class CollegeAdmissionSystem {
                          "ID", "Student", "Course", "Merit Score", "Status", "Preference");
         System.out.println("---------------------------------------------------------------");
         
-        for (Application app : applications) {
-            System.out.printf("%-5d %-10d %-10d %-12.2f %-10s %-10d%n",
-                             app.getApplicationId(), app.getStudentId(),
-                             app.getCourseId(), app.getMeritScore(),
-                             app.getStatus(), app.getPreference());
+        while (true) {
+            for (Application app : page.getItems()) {
+                System.out.printf("%-5d %-10d %-10d %-12.2f %-10s %-10d%n",
+                                 app.getApplicationId(), app.getStudentId(),
+                                 app.getCourseId(), app.getMeritScore(),
+                                 app.getStatus(), app.getPreference());
+            }
+            if (!page.hasNextPage() || !continueToNextPage()) {
+                return;
+            }
+            page = admissionService.getApplicationsPage(page.getNextPageToken(), PAGE_SIZE);
         }
     }
     
     private static void viewApplicationsByStudent() throws SQLException {
         int studentId = getIntInput("Enter Student ID: ");
-        List<Application> applications = admissionService.getApplicationsByStudent(studentId);
+        List<ApplicationDetail> applications = admissionService.getApplicationDetailsByStudent(studentId);
         
         if (applications.isEmpty()) {
             System.out.println("No applications found for student ID: " + studentId);
             return;
         }
         
-        System.out.printf("%-5s %-10s %-12s %-10s %-10s%n", 
-                         "ID", "Course", "Merit Score", "Status", "Preference");
-        System.out.println("-----------------------------------------------");
+        System.out.println("\n=== APPLICATIONS - " + applications.get(0).getStudentName() + " ===");
+        System.out.printf("%-5s %-10s %-25s %-12s %-10s %-10s%n", 
+                         "ID", "Code", "Course", "Merit Score", "Status", "Preference");
+        System.out.println("------------------------------------------------------------------------");
         
-        for (Application app : applications) {
-            System.out.printf("%-5d %-10d %-12.2f %-10s %-10d%n",
-                             app.getApplicationId(), app.getCourseId(),
+        for (ApplicationDetail app : applications) {
+            System.out.printf("%-5d %-10s %-25s %-12.2f %-10s %-10d%n",
+                             app.getApplicationId(), app.getCourseCode(), app.getCourseName(),
                              app.getMeritScore(), app.getStatus(), app.getPreference());
         }
     }
     
     private static void viewApplicationsByCourse() throws SQLException {
         int courseId = getIntInput("Enter Course ID: ");
-        List<Application> applications = admissionService.getApplicationsByCourse(courseId);
+        List<ApplicationDetail> applications = admissionService.getApplicationDetailsByCourse(courseId);
         
         if (applications.isEmpty()) {
             System.out.println("No applications found for course ID: " + courseId);
             return;
         }
         
-        System.out.printf("%-5s %-10s %-12s %-10s %-10s%n", 
-                         "ID", "Student", "Merit Score", "Status", "Preference");
-        System.out.println("-----------------------------------------------");
+        System.out.println("\n=== APPLICATIONS - " + applications.get(0).getCourseName() + " ===");
+        System.out.printf("%-5s %-10s %-20s %-10s %-12s %-10s %-10s%n", 
+                         "ID", "Student", "Name", "Category", "Merit Score", "Status", "Preference");
+        System.out.println("--------------------------------------------------------------------------------");
         
-        for (Application app : applications) {
-            System.out.printf("%-5d %-10d %-12.2f %-10s %-10d%n",
-                             app.getApplicationId(), app.getStudentId(),
-                             app.getMeritScore(), app.getStatus(), app.getPreference());
+        for (ApplicationDetail app : applications) {
+            System.out.printf("%-5d %-10d %-20s %-10s %-12.2f %-10s %-10d%n",
+                             app.getApplicationId(), app.getStudentId(), app.getStudentName(),
+                             app.getStudentCategory(), app.getMeritScore(), 
+                             app.getStatus(), app.getPreference());
         }
     }
     
@@ -581,9 +695,27 @@ public class CollegeAdmissionSystem {
     
     // Admission Process Methods
     private static void processAllAdmissions() throws SQLException {
+        int workers = getIntInput("Number of parallel workers (1 for serial): ");
         System.out.println("\n=== PROCESSING ALL ADMISSIONS ===");
-        admissionService.processAdmissions();
-        System.out.println("All admissions processed successfully.");
+        AdmissionRunReport report = workers > 1
+            ? admissionService.processAdmissionsParallel(workers)
+            : admissionService.processAdmissions();
+        
+        for (CourseAdmissionResult result : report.getCourseResults()) {
+            if (!result.isSuccessful()) {
+                System.out.println("Course " + result.getCourseId() + " failed and was rolled back: " + 
+                                   result.getError());
+            }
+        }
+        System.out.println("Courses: " + report.getCoursesProcessed() + 
+                           " (failed: " + report.getCoursesFailed() + ")");
+        System.out.println("Approved: " + report.getTotalApproved() + 
+                           ", Waitlisted: " + report.getTotalWaitlisted() + 
+                           ", Rejected: " + report.getTotalRejected());
+        System.out.println("Completed in " + report.getElapsedMillis() + " ms");
+        if (report.getCoursesFailed() == 0) {
+            System.out.println("All admissions processed successfully.");
+        }
     }
     
     private static void processAdmissionForCourse() throws SQLException {
@@ -621,27 +753,28 @@ public class CollegeAdmissionSystem {
     }
     
     private static void generateAdmissionList() throws SQLException {
-        List<Application> admissionList = admissionService.generateAdmissionList();
+        final int[] printed = { 0 };
+        admissionService.streamAdmissionList(new RowHandler<ApplicationDetail>() {
+            public void handle(ApplicationDetail app) {
+                if (printed[0]++ == 0) {
+                    System.out.println("\n=== ADMISSION LIST ===");
+                    System.out.printf("%-5s %-10s %-10s %-12s%n", "App ID", "Student", "Course", "Merit Score");
+                    System.out.println("---------------------------------------");
+                }
+                System.out.printf("%-5d %-10d %-10d %-12.2f%n",
+                                 app.getApplicationId(), app.getStudentId(),
+                                 app.getCourseId(), app.getMeritScore());
+            }
+        });
         
-        if (admissionList.isEmpty()) {
+        if (printed[0] == 0) {
             System.out.println("No approved applications found.");
-            return;
-        }
-        
-        System.out.println("\n=== ADMISSION LIST ===");
-        System.out.printf("%-5s %-10s %-10s %-12s%n", "App ID", "Student", "Course", "Merit Score");
-        System.out.println("---------------------------------------");
-        
-        for (Application app : admissionList) {
-            System.out.printf("%-5d %-10d %-10d %-12.2f%n",
-                             app.getApplicationId(), app.getStudentId(),
-                             app.getCourseId(), app.getMeritScore());
         }
     }
     
     // Reports Methods
     private static void exportAdmissionList() throws SQLException {
-        String filename = getStringInput("Enter filename (e.g., admission_list.csv): ");
+        String filename = getStringInput("Enter filename (e.g., admission_list.csv, or .csv.gz to compress): ");
         try {
             admissionService.generateAdmissionListCSV(filename);
             System.out.println("Admission list exported successfully to: " + filename);
@@ -652,7 +785,7 @@ public class CollegeAdmissionSystem {
     
     private static void exportMeritList() throws SQLException {
         int courseId = getIntInput("Enter Course ID: ");
-        String filename = getStringInput("Enter filename (e.g., merit_list.csv): ");
+        String filename = getStringInput("Enter filename (e.g., merit_list.csv, or .csv.gz to compress): ");
         try {
             admissionService.generateMeritListCSV(courseId, filename);
             System.out.println("Merit list exported successfully to: " + filename);
@@ -661,19 +794,66 @@ public class CollegeAdmissionSystem {
         }
     }
     
+    private static void exportAllMeritLists() throws SQLException {
+        String directory = getStringInput("Enter output directory: ");
+        int workers = getIntInput("Number of parallel workers: ");
+        String zip = getStringInput("Pack into a single zip file? (y/n): ");
+        try {
+            List<ExportReport> reports = admissionService.exportAllMeritLists(directory, workers, 
+                                                                              zip.equalsIgnoreCase("y"));
+            System.out.println("Merit lists exported successfully for " + reports.size() + " courses.");
+        } catch (Exception e) {
+            System.err.println("Error exporting merit lists: " + e.getMessage());
+        }
+    }
+    
+    private static void viewMeritRank() throws SQLException {
+        int studentId = getIntInput("Enter Student ID: ");
+        int courseId = getIntInput("Enter Course ID: ");
+        
+        MeritRank rank = admissionService.getMeritRank(studentId, courseId);
+        if (rank == null) {
+            System.out.println("No active application found for this student and course.");
+            return;
+        }
+        System.out.println("Merit Score: " + String.format("%.2f", rank.getMeritScore()));
+        System.out.println("Overall Rank: " + rank.getOverallRank() + " of " + rank.getOverallTotal() + 
+                           " (tied rank " + rank.getOverallCompetitionRank() + ")");
+        System.out.println(rank.getCategory() + " Rank: " + rank.getCategoryRank() + " of " + rank.getCategoryTotal() + 
+                           " (tied rank " + rank.getCategoryCompetitionRank() + ")");
+    }
+    
     private static void viewStatistics() throws SQLException {
+        AdmissionStatistics statistics = admissionService.getStatistics();
+        
         System.out.println("\n=== SYSTEM STATISTICS ===");
-        System.out.println("Total Applications: " + admissionService.getTotalApplications());
-        System.out.println("Approved Applications: " + admissionService.getApprovedApplicationsCount());
-        System.out.println("Rejected Applications: " + admissionService.getRejectedApplicationsCount());
-        System.out.println("Waitlisted Applications: " + admissionService.getWaitlistedApplicationsCount());
-        System.out.println("Pending Applications: " + admissionService.getPendingApplicationsCount());
-        System.out.println("Total Seats Available: " + admissionService.getTotalSeatsAvailable());
+        System.out.println("Total Applications: " + statistics.getTotalApplications());
+        System.out.println("Approved Applications: " + statistics.getApprovedApplications());
+        System.out.println("Rejected Applications: " + statistics.getRejectedApplications());
+        System.out.println("Waitlisted Applications: " + statistics.getWaitlistedApplications());
+        System.out.println("Pending Applications: " + statistics.getPendingApplications());
+        System.out.println("Total Seats Available: " + statistics.getTotalSeatsAvailable());
         System.out.println("Average Grade 12 Percentage: " + 
-                          String.format("%.2f", admissionService.getAverageGrade12Percentage()));
+                          String.format("%.2f", statistics.getAverageGrade12Percentage()));
+        System.out.println("Course Cache: " + cacheSummary(admissionService.getCourseCache()));
+        System.out.println("Student Cache: " + cacheSummary(admissionService.getStudentCache()));
+        System.out.println("Email Check False Positives: " + 
+                          String.format("%.2f%%", admissionService.getEmailCheckFalsePositiveRate() * 100));
+        System.out.println("Course Code Check False Positives: " + 
+                          String.format("%.2f%%", admissionService.getCourseCodeCheckFalsePositiveRate() * 100));
+    }
+    
+    private static String cacheSummary(EntityCache<?> cache) {
+        return String.format("%.1f%% hit rate, %d of %d entries", 
+                             cache.getHitRate() * 100, cache.getSize(), cache.getMaxEntries());
     }
     
     // Utility Methods
+    private static boolean continueToNextPage() {
+        String input = getStringInput("Press Enter for the next page, or q to stop: ");
+        return !input.equalsIgnoreCase("q");
+    }
+    
     private static String getStringInput(String prompt) {
         System.out.print(prompt);
         return scanner.nextLine().trim();
@@ -1,11 +1,15 @@
 package com.college.admission.dao;
 
 import com.college.admission.model.Application;
+import com.college.admission.model.ApplicationDecision;
+import com.college.admission.model.ApplicationDetail;
 import com.college.admission.util.DatabaseConfig;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ApplicationDAO {
     
@@ -45,6 +49,59 @@ public class ApplicationDAO {
         } finally {
             if (rs != null) rs.close();
             if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
+        }
+    }
+    
+    // Batched form of addApplication, meant to run inside a transaction; merit_score must be set.
+    // A plain INSERT ... VALUES, so rewriteBatchedStatements sends it as multi-row inserts.
+    // Generated ids are assigned only to rows the driver reports as inserted, in batch order.
+    // Returns the number of rows inserted.
+    public int addApplications(List<Application> applications) throws SQLException {
+        String query = "INSERT INTO applications (student_id, course_id, application_date, " +
+                      "status, remarks, merit_score, preference, last_updated) " +
+                      "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        
+        if (applications.isEmpty()) {
+            return 0;
+        }
+        
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        
+        try {
+            conn = DatabaseConfig.getConnection();
+            pstmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
+            for (Application application : applications) {
+                pstmt.setInt(1, application.getStudentId());
+                pstmt.setInt(2, application.getCourseId());
+                pstmt.setTimestamp(3, new Timestamp(application.getApplicationDate().getTime()));
+                pstmt.setString(4, application.getStatus());
+                pstmt.setString(5, application.getRemarks());
+                pstmt.setDouble(6, application.getMeritScore());
+                pstmt.setInt(7, application.getPreference());
+                pstmt.setTimestamp(8, new Timestamp(application.getLastUpdated().getTime()));
+                pstmt.addBatch();
+            }
+            
+            int[] results = pstmt.executeBatch();
+            rs = pstmt.getGeneratedKeys();
+            int inserted = 0;
+            for (int i = 0; i < results.length && i < applications.size(); i++) {
+                // Rewritten batches report SUCCESS_NO_INFO instead of a row count
+                if (results[i] > 0 || results[i] == Statement.SUCCESS_NO_INFO) {
+                    inserted++;
+                    if (rs.next()) {
+                        applications.get(i).setApplicationId(rs.getInt(1));
+                    }
+                }
+            }
+            return inserted;
+        } finally {
+            if (rs != null) rs.close();
+            if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
         }
     }
     
@@ -69,6 +126,33 @@ public class ApplicationDAO {
         } finally {
             if (rs != null) rs.close();
             if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
+        }
+    }
+    
+    // Reads the application and locks its row until the current transaction ends
+    public Application getApplicationByIdForUpdate(int applicationId) throws SQLException {
+        String query = "SELECT * FROM applications WHERE application_id = ? FOR UPDATE";
+        
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        
+        try {
+            conn = DatabaseConfig.getConnection();
+            pstmt = conn.prepareStatement(query);
+            pstmt.setInt(1, applicationId);
+            
+            rs = pstmt.executeQuery();
+            
+            if (rs.next()) {
+                return mapResultSetToApplication(rs);
+            }
+            return null;
+        } finally {
+            if (rs != null) rs.close();
+            if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
         }
     }
     
@@ -93,11 +177,12 @@ public class ApplicationDAO {
         } finally {
             if (rs != null) rs.close();
             if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
         }
     }
     
     public List<Application> getApplicationsByCourseId(int courseId) throws SQLException {
-        String query = "SELECT * FROM applications WHERE course_id = ? ORDER BY merit_score DESC";
+        String query = "SELECT * FROM applications WHERE course_id = ? ORDER BY merit_score DESC, application_id";
         
         Connection conn = null;
         PreparedStatement pstmt = null;
@@ -117,6 +202,48 @@ public class ApplicationDAO {
         } finally {
             if (rs != null) rs.close();
             if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
+        }
+    }
+    
+    // Non-withdrawn applications for a course with the student's category and percentage joined
+    // in, grouped by category (enum order GENERAL, OBC, SC, ST) and sorted by merit within each
+    public Map<String, List<Application>> getApplicationsForAllocation(int courseId) throws SQLException {
+        String query = "SELECT a.*, s.category AS student_category, s.grade12_percentage AS student_percentage " +
+                      "FROM applications a " +
+                      "JOIN students s ON a.student_id = s.student_id " +
+                      "WHERE a.course_id = ? AND a.status <> 'WITHDRAWN' " +
+                      "ORDER BY s.category, a.merit_score DESC, a.application_id";
+        
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        Map<String, List<Application>> applicationsByCategory = new LinkedHashMap<String, List<Application>>();
+        
+        try {
+            conn = DatabaseConfig.getConnection();
+            pstmt = conn.prepareStatement(query);
+            pstmt.setInt(1, courseId);
+            rs = pstmt.executeQuery();
+            
+            while (rs.next()) {
+                Application application = mapResultSetToApplication(rs);
+                application.setStudentCategory(rs.getString("student_category"));
+                application.setStudentPercentage(rs.getDouble("student_percentage"));
+                
+                String category = application.getStudentCategory().toUpperCase();
+                List<Application> applications = applicationsByCategory.get(category);
+                if (applications == null) {
+                    applications = new ArrayList<Application>();
+                    applicationsByCategory.put(category, applications);
+                }
+                applications.add(application);
+            }
+            return applicationsByCategory;
+        } finally {
+            if (rs != null) rs.close();
+            if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
         }
     }
     
@@ -141,6 +268,7 @@ public class ApplicationDAO {
         } finally {
             if (rs != null) rs.close();
             if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
         }
     }
     
@@ -164,34 +292,247 @@ public class ApplicationDAO {
         } finally {
             if (rs != null) rs.close();
             if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
         }
     }
     
-    public List<Application> getApplicationsWithDetails() throws SQLException {
-        String query = "SELECT a.*, s.first_name, s.last_name, s.email, s.category, s.grade12_percentage, " +
-                      "c.course_name, c.course_code, c.department " +
+    // Streaming variant of getApplicationsByCourseId: rows are handed to the handler as they
+    // are fetched instead of being collected into a list
+    public void streamApplicationsByCourseId(int courseId, RowHandler<Application> handler) throws SQLException {
+        String query = "SELECT * FROM applications WHERE course_id = ? ORDER BY merit_score DESC, application_id";
+        
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        
+        try {
+            conn = DatabaseConfig.getConnection();
+            pstmt = conn.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            pstmt.setFetchSize(DatabaseConfig.getStreamFetchSize());
+            pstmt.setInt(1, courseId);
+            rs = pstmt.executeQuery();
+            
+            while (rs.next()) {
+                handler.handle(mapResultSetToApplication(rs));
+            }
+        } finally {
+            if (rs != null) rs.close();
+            if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
+        }
+    }
+    
+    // Streams the id, student, merit score and student category of every non-withdrawn
+    // application for the course; only those fields of each Application are set
+    public void streamMeritEntries(int courseId, RowHandler<Application> handler) throws SQLException {
+        String query = "SELECT a.application_id, a.student_id, a.merit_score, s.category " +
                       "FROM applications a " +
                       "JOIN students s ON a.student_id = s.student_id " +
-                      "JOIN courses c ON a.course_id = c.course_id " +
-                      "ORDER BY a.application_date DESC";
+                      "WHERE a.course_id = ? AND a.status <> 'WITHDRAWN'";
         
         Connection conn = null;
         PreparedStatement pstmt = null;
         ResultSet rs = null;
-        List<Application> applications = new ArrayList<Application>();
         
         try {
             conn = DatabaseConfig.getConnection();
-            pstmt = conn.prepareStatement(query);
+            pstmt = conn.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            pstmt.setFetchSize(DatabaseConfig.getStreamFetchSize());
+            pstmt.setInt(1, courseId);
             rs = pstmt.executeQuery();
             
             while (rs.next()) {
-                applications.add(mapResultSetToApplication(rs));
+                Application application = new Application();
+                application.setApplicationId(rs.getInt(1));
+                application.setStudentId(rs.getInt(2));
+                application.setMeritScore(rs.getDouble(3));
+                application.setStudentCategory(rs.getString(4));
+                handler.handle(application);
+            }
+        } finally {
+            if (rs != null) rs.close();
+            if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
+        }
+    }
+    
+    // Streams applications with the given status in merit order (highest first), which is the
+    // order the admission list and its export need
+    public void streamApplicationsByStatus(String status, RowHandler<Application> handler) throws SQLException {
+        String query = "SELECT * FROM applications WHERE status = ? ORDER BY merit_score DESC, application_id";
+        
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        
+        try {
+            conn = DatabaseConfig.getConnection();
+            pstmt = conn.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            pstmt.setFetchSize(DatabaseConfig.getStreamFetchSize());
+            pstmt.setString(1, status);
+            rs = pstmt.executeQuery();
+            
+            while (rs.next()) {
+                handler.handle(mapResultSetToApplication(rs));
             }
-            return applications;
         } finally {
             if (rs != null) rs.close();
             if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
+        }
+    }
+    
+    // Streaming variant of getAllApplications
+    public void streamAllApplications(RowHandler<Application> handler) throws SQLException {
+        String query = "SELECT * FROM applications ORDER BY application_date DESC";
+        
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        
+        try {
+            conn = DatabaseConfig.getConnection();
+            pstmt = conn.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            pstmt.setFetchSize(DatabaseConfig.getStreamFetchSize());
+            rs = pstmt.executeQuery();
+            
+            while (rs.next()) {
+                handler.handle(mapResultSetToApplication(rs));
+            }
+        } finally {
+            if (rs != null) rs.close();
+            if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
+        }
+    }
+    
+    // Keyset (seek) pagination over applications, newest first. Pass null for the first page
+    // and the previous page's token after that; cost does not grow with page depth.
+    public Page<Application> getApplicationsPage(String pageToken, int pageSize) throws SQLException {
+        String firstPageQuery = "SELECT * FROM applications " +
+                               "ORDER BY application_date DESC, application_id DESC LIMIT ?";
+        String nextPageQuery = "SELECT * FROM applications " +
+                              "WHERE application_date < ? OR (application_date = ? AND application_id < ?) " +
+                              "ORDER BY application_date DESC, application_id DESC LIMIT ?";
+        
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        List<Application> items = new ArrayList<Application>(pageSize);
+        
+        try {
+            conn = DatabaseConfig.getConnection();
+            if (pageToken == null) {
+                pstmt = conn.prepareStatement(firstPageQuery);
+                pstmt.setInt(1, pageSize + 1);
+            } else {
+                long[] key = Page.parseTimestampToken(pageToken);
+                Timestamp lastTimestamp = new Timestamp(key[0]);
+                pstmt = conn.prepareStatement(nextPageQuery);
+                pstmt.setTimestamp(1, lastTimestamp);
+                pstmt.setTimestamp(2, lastTimestamp);
+                pstmt.setInt(3, (int) key[1]);
+                pstmt.setInt(4, pageSize + 1);
+            }
+            rs = pstmt.executeQuery();
+            
+            // One extra row is fetched only to learn whether another page exists
+            boolean hasMore = false;
+            while (rs.next()) {
+                if (items.size() == pageSize) {
+                    hasMore = true;
+                    break;
+                }
+                items.add(mapResultSetToApplication(rs));
+            }
+            String nextPageToken = null;
+            if (hasMore && !items.isEmpty()) {
+                Application last = items.get(items.size() - 1);
+                nextPageToken = Page.token(last.getApplicationDate().getTime(), last.getApplicationId());
+            }
+            return new Page<Application>(items, nextPageToken);
+        } finally {
+            if (rs != null) rs.close();
+            if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
+        }
+    }
+    
+    // Kept with its original element type; use getApplicationDetails for the typed projection
+    public List<Application> getApplicationsWithDetails() throws SQLException {
+        return new ArrayList<Application>(getApplicationDetails(new ApplicationDetailFilter()));
+    }
+    
+    public List<ApplicationDetail> getApplicationDetails(ApplicationDetailFilter filter) throws SQLException {
+        final List<ApplicationDetail> applications = new ArrayList<ApplicationDetail>();
+        queryApplicationDetails(filter, false, new RowHandler<ApplicationDetail>() {
+            public void handle(ApplicationDetail application) {
+                applications.add(application);
+            }
+        });
+        return applications;
+    }
+    
+    // Streaming variant of getApplicationDetails for large reports
+    public void streamApplicationDetails(ApplicationDetailFilter filter, 
+                                         RowHandler<ApplicationDetail> handler) throws SQLException {
+        queryApplicationDetails(filter, true, handler);
+    }
+    
+    private void queryApplicationDetails(ApplicationDetailFilter filter, boolean streaming,
+                                         RowHandler<ApplicationDetail> handler) throws SQLException {
+        StringBuilder query = new StringBuilder(
+                "SELECT a.*, s.first_name, s.last_name, s.email, s.category, s.grade12_percentage, " +
+                "c.course_name, c.course_code, c.department " +
+                "FROM applications a " +
+                "JOIN students s ON a.student_id = s.student_id " +
+                "JOIN courses c ON a.course_id = c.course_id " +
+                "WHERE 1 = 1");
+        List<Object> params = new ArrayList<Object>();
+        if (filter.getStatus() != null) {
+            query.append(" AND a.status = ?");
+            params.add(filter.getStatus());
+        }
+        if (filter.getCourseId() != null) {
+            query.append(" AND a.course_id = ?");
+            params.add(filter.getCourseId());
+        }
+        if (filter.getStudentId() != null) {
+            query.append(" AND a.student_id = ?");
+            params.add(filter.getStudentId());
+        }
+        if (filter.getCategory() != null) {
+            query.append(" AND s.category = ?");
+            params.add(filter.getCategory());
+        }
+        query.append(filter.isMeritOrder() 
+                     ? " ORDER BY a.merit_score DESC, a.application_id" 
+                     : " ORDER BY a.application_date DESC, a.application_id DESC");
+        
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        
+        try {
+            conn = DatabaseConfig.getConnection();
+            if (streaming) {
+                pstmt = conn.prepareStatement(query.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                pstmt.setFetchSize(DatabaseConfig.getStreamFetchSize());
+            } else {
+                pstmt = conn.prepareStatement(query.toString());
+            }
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
+            rs = pstmt.executeQuery();
+            
+            while (rs.next()) {
+                handler.handle(mapResultSetToApplicationDetail(rs));
+            }
+        } finally {
+            if (rs != null) rs.close();
+            if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
         }
     }
     
@@ -217,6 +558,7 @@ public class ApplicationDAO {
             return affectedRows > 0;
         } finally {
             if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
         }
     }
     
@@ -239,6 +581,51 @@ public class ApplicationDAO {
             return affectedRows > 0;
         } finally {
             if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
+        }
+    }
+    
+    // Applies the decisions with JDBC batching, executing a batch every batchSize rows.
+    // Returns the number of decisions that updated a row.
+    public int updateApplicationStatuses(List<ApplicationDecision> decisions, int batchSize) throws SQLException {
+        String query = "UPDATE applications SET status = ?, remarks = ?, last_updated = ? WHERE application_id = ?";
+        
+        if (decisions.isEmpty()) {
+            return 0;
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be greater than 0");
+        }
+        
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        int updated = 0;
+        
+        try {
+            conn = DatabaseConfig.getConnection();
+            pstmt = conn.prepareStatement(query);
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            int pending = 0;
+            
+            for (ApplicationDecision decision : decisions) {
+                pstmt.setString(1, decision.getStatus());
+                pstmt.setString(2, decision.getRemarks());
+                pstmt.setTimestamp(3, now);
+                pstmt.setInt(4, decision.getApplicationId());
+                pstmt.addBatch();
+                
+                if (++pending == batchSize) {
+                    updated += countUpdated(pstmt.executeBatch());
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                updated += countUpdated(pstmt.executeBatch());
+            }
+            return updated;
+        } finally {
+            if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
         }
     }
     
@@ -257,6 +644,7 @@ public class ApplicationDAO {
             return affectedRows > 0;
         } finally {
             if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
         }
     }
     
@@ -281,6 +669,7 @@ public class ApplicationDAO {
         } finally {
             if (rs != null) rs.close();
             if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
         }
     }
     
@@ -304,11 +693,42 @@ public class ApplicationDAO {
         } finally {
             if (rs != null) rs.close();
             if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
+        }
+    }
+    
+    private int countUpdated(int[] results) {
+        int count = 0;
+        for (int result : results) {
+            // Rewritten batches report SUCCESS_NO_INFO instead of a row count
+            if (result > 0 || result == Statement.SUCCESS_NO_INFO) {
+                count++;
+            }
         }
+        return count;
+    }
+    
+    private ApplicationDetail mapResultSetToApplicationDetail(ResultSet rs) throws SQLException {
+        ApplicationDetail detail = new ApplicationDetail();
+        populateApplication(detail, rs);
+        detail.setStudentFirstName(rs.getString("first_name"));
+        detail.setStudentLastName(rs.getString("last_name"));
+        detail.setStudentEmail(rs.getString("email"));
+        detail.setStudentCategory(rs.getString("category"));
+        detail.setStudentPercentage(rs.getDouble("grade12_percentage"));
+        detail.setCourseName(rs.getString("course_name"));
+        detail.setCourseCode(rs.getString("course_code"));
+        detail.setDepartment(rs.getString("department"));
+        return detail;
     }
     
     private Application mapResultSetToApplication(ResultSet rs) throws SQLException {
         Application application = new Application();
+        populateApplication(application, rs);
+        return application;
+    }
+    
+    private void populateApplication(Application application, ResultSet rs) throws SQLException {
         application.setApplicationId(rs.getInt("application_id"));
         application.setStudentId(rs.getInt("student_id"));
         application.setCourseId(rs.getInt("course_id"));
@@ -318,6 +738,5 @@ public class ApplicationDAO {
         application.setMeritScore(rs.getDouble("merit_score"));
         application.setPreference(rs.getInt("preference"));
         application.setLastUpdated(rs.getTimestamp("last_updated"));
-        return application;
     }
 }
\ No newline at end of file
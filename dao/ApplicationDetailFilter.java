@@ -0,0 +1,50 @@
+package com.college.admission.dao;
+
+// Optional criteria for ApplicationDAO detail queries; unset fields do not filter
+public class ApplicationDetailFilter {
+    private String status;
+    private Integer courseId;
+    private Integer studentId;
+    private String category;
+    private boolean meritOrder = false; // merit_score DESC instead of application_date DESC
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Integer getCourseId() {
+        return courseId;
+    }
+
+    public void setCourseId(Integer courseId) {
+        this.courseId = courseId;
+    }
+
+    public Integer getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(Integer studentId) {
+        this.studentId = studentId;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public boolean isMeritOrder() {
+        return meritOrder;
+    }
+
+    public void setMeritOrder(boolean meritOrder) {
+        this.meritOrder = meritOrder;
+    }
+}
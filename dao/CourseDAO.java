@@ -2,6 +2,7 @@ package com.college.admission.dao;
 
 import com.college.admission.model.Course;
 import com.college.admission.util.DatabaseConfig;
+import com.college.admission.util.EntityCache;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -9,6 +10,34 @@ import java.util.List;
 
 public class CourseDAO {
     
+    private static final int COURSE_CACHE_MAX_ENTRIES = 2000;
+    private static final long COURSE_CACHE_TTL_MS = 300000;
+    
+    // Shared by all CourseDAO instances. Lookups by id and code are served from memory;
+    // every write through this DAO invalidates the course (again after its transaction ends).
+    private static final EntityCache<Course> COURSE_CACHE = new EntityCache<Course>(
+            "course", COURSE_CACHE_MAX_ENTRIES, COURSE_CACHE_TTL_MS, new EntityCache.Copier<Course>() {
+                public Course copy(Course course) {
+                    return new Course(course);
+                }
+            });
+    
+    // Lets courseCodeExists answer "no" for unused codes without a query
+    private static final KeyExistenceFilter CODE_FILTER = new KeyExistenceFilter(
+            "course code", "SELECT COUNT(*) FROM courses", "SELECT course_code FROM courses");
+    
+    public static EntityCache<Course> getCache() {
+        return COURSE_CACHE;
+    }
+    
+    public static String getCodeFilterStats() {
+        return CODE_FILTER.toString();
+    }
+    
+    public static double getCodeFilterFalsePositiveRate() {
+        return CODE_FILTER.getObservedFalsePositiveRate();
+    }
+    
     public int addCourse(Course course) throws SQLException {
         String query = "INSERT INTO courses (course_name, course_code, description, duration, " +
                       "total_seats, available_seats, general_cutoff, obc_cutoff, sc_cutoff, " +
@@ -37,6 +66,8 @@ public class CourseDAO {
             pstmt.setString(12, course.getDepartment());
             pstmt.setString(13, course.getStatus());
             
+            // Added before the insert so no concurrent check can miss the new code
+            CODE_FILTER.add(course.getCourseCode());
             int affectedRows = pstmt.executeUpdate();
             
             if (affectedRows > 0) {
@@ -51,12 +82,117 @@ public class CourseDAO {
         } finally {
             if (rs != null) rs.close();
             if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
         }
     }
     
+    // Inserts the courses with JDBC batching and sets the generated ids on them.
+    // Returns the number of rows inserted.
+    public int addCourses(List<Course> courses, int batchSize) throws SQLException {
+        String query = "INSERT INTO courses (course_name, course_code, description, duration, " +
+                      "total_seats, available_seats, general_cutoff, obc_cutoff, sc_cutoff, " +
+                      "st_cutoff, fees, department, status) " +
+                      "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        
+        if (courses.isEmpty()) {
+            return 0;
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be greater than 0");
+        }
+        
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        int inserted = 0;
+        
+        try {
+            conn = DatabaseConfig.getConnection();
+            pstmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
+            
+            int batchStart = 0;
+            for (int i = 0; i < courses.size(); i++) {
+                Course course = courses.get(i);
+                pstmt.setString(1, course.getCourseName());
+                pstmt.setString(2, course.getCourseCode());
+                pstmt.setString(3, course.getDescription());
+                pstmt.setInt(4, course.getDuration());
+                pstmt.setInt(5, course.getTotalSeats());
+                pstmt.setInt(6, course.getAvailableSeats());
+                pstmt.setDouble(7, course.getGeneralCutoff());
+                pstmt.setDouble(8, course.getObcCutoff());
+                pstmt.setDouble(9, course.getScCutoff());
+                pstmt.setDouble(10, course.getStCutoff());
+                pstmt.setDouble(11, course.getFees());
+                pstmt.setString(12, course.getDepartment());
+                pstmt.setString(13, course.getStatus());
+                pstmt.addBatch();
+                CODE_FILTER.add(course.getCourseCode());
+                
+                if (i - batchStart + 1 == batchSize || i == courses.size() - 1) {
+                    inserted += countUpdated(pstmt.executeBatch());
+                    ResultSet rs = pstmt.getGeneratedKeys();
+                    try {
+                        int index = batchStart;
+                        while (rs.next() && index < courses.size()) {
+                            courses.get(index++).setCourseId(rs.getInt(1));
+                        }
+                    } finally {
+                        rs.close();
+                    }
+                    batchStart = i + 1;
+                }
+            }
+            return inserted;
+        } finally {
+            if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
+        }
+    }
+    
+    // Served from the course cache outside transactions; inside one the database is read so
+    // the transaction sees its own writes
     public Course getCourseById(int courseId) throws SQLException {
         String query = "SELECT * FROM courses WHERE course_id = ?";
         
+        boolean cacheable = !DatabaseConfig.isInTransaction();
+        if (cacheable) {
+            Course cached = COURSE_CACHE.get(courseId);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        long stamp = COURSE_CACHE.stamp(courseId);
+        
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        
+        try {
+            conn = DatabaseConfig.getConnection();
+            pstmt = conn.prepareStatement(query);
+            pstmt.setInt(1, courseId);
+            
+            rs = pstmt.executeQuery();
+            
+            if (rs.next()) {
+                Course course = mapResultSetToCourse(rs);
+                if (cacheable) {
+                    COURSE_CACHE.put(courseId, course.getCourseCode(), course, stamp);
+                }
+                return course;
+            }
+            return null;
+        } finally {
+            if (rs != null) rs.close();
+            if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
+        }
+    }
+    
+    // Reads the course and locks its row until the current transaction ends
+    public Course getCourseByIdForUpdate(int courseId) throws SQLException {
+        String query = "SELECT * FROM courses WHERE course_id = ? FOR UPDATE";
+        
         Connection conn = null;
         PreparedStatement pstmt = null;
         ResultSet rs = null;
@@ -75,12 +211,22 @@ public class CourseDAO {
         } finally {
             if (rs != null) rs.close();
             if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
         }
     }
     
     public Course getCourseByCode(String courseCode) throws SQLException {
         String query = "SELECT * FROM courses WHERE course_code = ?";
         
+        boolean cacheable = !DatabaseConfig.isInTransaction();
+        if (cacheable) {
+            Course cached = COURSE_CACHE.getBySecondaryKey(courseCode);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        long stamp = COURSE_CACHE.secondaryStamp();
+        
         Connection conn = null;
         PreparedStatement pstmt = null;
         ResultSet rs = null;
@@ -93,12 +239,17 @@ public class CourseDAO {
             rs = pstmt.executeQuery();
             
             if (rs.next()) {
-                return mapResultSetToCourse(rs);
+                Course course = mapResultSetToCourse(rs);
+                if (cacheable) {
+                    COURSE_CACHE.putBySecondaryKey(course.getCourseId(), course.getCourseCode(), course, stamp);
+                }
+                return course;
             }
             return null;
         } finally {
             if (rs != null) rs.close();
             if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
         }
     }
     
@@ -122,6 +273,45 @@ public class CourseDAO {
         } finally {
             if (rs != null) rs.close();
             if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
+        }
+    }
+    
+    // Keyset (seek) pagination over courses by primary key. Pass null for the first page
+    // and the previous page's token after that.
+    public Page<Course> getCoursesPage(String pageToken, int pageSize) throws SQLException {
+        String query = "SELECT * FROM courses WHERE course_id > ? ORDER BY course_id LIMIT ?";
+        
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        List<Course> items = new ArrayList<Course>(pageSize);
+        
+        try {
+            conn = DatabaseConfig.getConnection();
+            pstmt = conn.prepareStatement(query);
+            pstmt.setInt(1, pageToken == null ? 0 : Page.parseIdToken(pageToken));
+            pstmt.setInt(2, pageSize + 1);
+            rs = pstmt.executeQuery();
+            
+            // One extra row is fetched only to learn whether another page exists
+            boolean hasMore = false;
+            while (rs.next()) {
+                if (items.size() == pageSize) {
+                    hasMore = true;
+                    break;
+                }
+                items.add(mapResultSetToCourse(rs));
+            }
+            String nextPageToken = null;
+            if (hasMore && !items.isEmpty()) {
+                nextPageToken = Page.token(items.get(items.size() - 1).getCourseId());
+            }
+            return new Page<Course>(items, nextPageToken);
+        } finally {
+            if (rs != null) rs.close();
+            if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
         }
     }
     
@@ -145,6 +335,7 @@ public class CourseDAO {
         } finally {
             if (rs != null) rs.close();
             if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
         }
     }
     
@@ -169,12 +360,17 @@ public class CourseDAO {
         } finally {
             if (rs != null) rs.close();
             if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
         }
     }
     
+    // available_seats is shifted by the change in total_seats, as in updateCourseCatalogue, rather
+    // than overwritten from the caller's (possibly stale) copy; only seat reservations and
+    // releases change it otherwise.
     public boolean updateCourse(Course course) throws SQLException {
         String query = "UPDATE courses SET course_name = ?, course_code = ?, description = ?, " +
-                      "duration = ?, total_seats = ?, available_seats = ?, general_cutoff = ?, " +
+                      "duration = ?, available_seats = GREATEST(0, available_seats + ? - total_seats), " +
+                      "total_seats = ?, general_cutoff = ?, " +
                       "obc_cutoff = ?, sc_cutoff = ?, st_cutoff = ?, fees = ?, department = ?, " +
                       "status = ? WHERE course_id = ?";
         
@@ -190,7 +386,7 @@ public class CourseDAO {
             pstmt.setString(3, course.getDescription());
             pstmt.setInt(4, course.getDuration());
             pstmt.setInt(5, course.getTotalSeats());
-            pstmt.setInt(6, course.getAvailableSeats());
+            pstmt.setInt(6, course.getTotalSeats());
             pstmt.setDouble(7, course.getGeneralCutoff());
             pstmt.setDouble(8, course.getObcCutoff());
             pstmt.setDouble(9, course.getScCutoff());
@@ -200,15 +396,144 @@ public class CourseDAO {
             pstmt.setString(13, course.getStatus());
             pstmt.setInt(14, course.getCourseId());
             
+            CODE_FILTER.add(course.getCourseCode());
+            int affectedRows = pstmt.executeUpdate();
+            return affectedRows > 0;
+        } finally {
+            if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
+            invalidate(course.getCourseId());
+        }
+    }
+    
+    // Batched catalogue update by course_id. available_seats is not overwritten: it is shifted
+    // by the change in total_seats (never below 0), so seats reserved concurrently are kept.
+    // Returns the number of rows updated.
+    public int updateCourseCatalogue(List<Course> courses, int batchSize) throws SQLException {
+        String query = "UPDATE courses SET course_name = ?, description = ?, duration = ?, " +
+                      "available_seats = GREATEST(0, available_seats + ? - total_seats), total_seats = ?, " +
+                      "general_cutoff = ?, obc_cutoff = ?, sc_cutoff = ?, st_cutoff = ?, fees = ?, " +
+                      "department = ?, status = ? WHERE course_id = ?";
+        
+        if (courses.isEmpty()) {
+            return 0;
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be greater than 0");
+        }
+        
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        int updated = 0;
+        
+        try {
+            conn = DatabaseConfig.getConnection();
+            pstmt = conn.prepareStatement(query);
+            
+            int pending = 0;
+            for (Course course : courses) {
+                pstmt.setString(1, course.getCourseName());
+                pstmt.setString(2, course.getDescription());
+                pstmt.setInt(3, course.getDuration());
+                pstmt.setInt(4, course.getTotalSeats());
+                pstmt.setInt(5, course.getTotalSeats());
+                pstmt.setDouble(6, course.getGeneralCutoff());
+                pstmt.setDouble(7, course.getObcCutoff());
+                pstmt.setDouble(8, course.getScCutoff());
+                pstmt.setDouble(9, course.getStCutoff());
+                pstmt.setDouble(10, course.getFees());
+                pstmt.setString(11, course.getDepartment());
+                pstmt.setString(12, course.getStatus());
+                pstmt.setInt(13, course.getCourseId());
+                pstmt.addBatch();
+                
+                if (++pending == batchSize) {
+                    updated += countUpdated(pstmt.executeBatch());
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                updated += countUpdated(pstmt.executeBatch());
+            }
+            return updated;
+        } finally {
+            if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
+            for (Course course : courses) {
+                invalidate(course.getCourseId());
+            }
+        }
+    }
+    
+    // Relative change to available_seats, kept between 0 and total_seats, so it composes with
+    // concurrent reservations instead of overwriting them
+    public boolean adjustAvailableSeats(int courseId, int delta) throws SQLException {
+        String query = "UPDATE courses SET available_seats = " +
+                      "GREATEST(0, LEAST(total_seats, available_seats + ?)) WHERE course_id = ?";
+        
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        
+        try {
+            conn = DatabaseConfig.getConnection();
+            pstmt = conn.prepareStatement(query);
+            pstmt.setInt(1, delta);
+            pstmt.setInt(2, courseId);
+            
             int affectedRows = pstmt.executeUpdate();
             return affectedRows > 0;
         } finally {
             if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
+            invalidate(courseId);
         }
     }
     
-    public boolean updateAvailableSeats(int courseId, int newAvailableSeats) throws SQLException {
-        String query = "UPDATE courses SET available_seats = ? WHERE course_id = ?";
+    // Reserves up to 'requested' seats in one UPDATE that takes LEAST(requested, available_seats),
+    // so concurrent callers can never oversell and a partial grant needs no re-read. The granted
+    // count is captured with LAST_INSERT_ID(expr), which is per connection. Returns the number of
+    // seats actually reserved.
+    public int reserveSeats(int courseId, int requested) throws SQLException {
+        String reserveQuery = "UPDATE courses SET available_seats = available_seats - " +
+                             "LAST_INSERT_ID(LEAST(?, available_seats)) " +
+                             "WHERE course_id = ? AND available_seats > 0";
+        String grantedQuery = "SELECT LAST_INSERT_ID()";
+        
+        if (requested <= 0) {
+            return 0;
+        }
+        
+        Connection conn = null;
+        PreparedStatement reserveStmt = null;
+        PreparedStatement grantedStmt = null;
+        ResultSet rs = null;
+        
+        try {
+            conn = DatabaseConfig.getConnection();
+            reserveStmt = conn.prepareStatement(reserveQuery);
+            reserveStmt.setInt(1, requested);
+            reserveStmt.setInt(2, courseId);
+            if (reserveStmt.executeUpdate() == 0) {
+                // No such course, or no seats left
+                return 0;
+            }
+            
+            grantedStmt = conn.prepareStatement(grantedQuery);
+            rs = grantedStmt.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+        } finally {
+            if (rs != null) rs.close();
+            if (grantedStmt != null) grantedStmt.close();
+            if (reserveStmt != null) reserveStmt.close();
+            if (conn != null) conn.close();
+            invalidate(courseId);
+        }
+    }
+    
+    // Returns seats to the course, never going above total_seats
+    public boolean releaseSeats(int courseId, int count) throws SQLException {
+        String query = "UPDATE courses SET available_seats = LEAST(total_seats, available_seats + ?) " +
+                      "WHERE course_id = ?";
         
         Connection conn = null;
         PreparedStatement pstmt = null;
@@ -216,13 +541,15 @@ public class CourseDAO {
         try {
             conn = DatabaseConfig.getConnection();
             pstmt = conn.prepareStatement(query);
-            pstmt.setInt(1, newAvailableSeats);
+            pstmt.setInt(1, count);
             pstmt.setInt(2, courseId);
             
             int affectedRows = pstmt.executeUpdate();
             return affectedRows > 0;
         } finally {
             if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
+            invalidate(courseId);
         }
     }
     
@@ -241,12 +568,18 @@ public class CourseDAO {
             return affectedRows > 0;
         } finally {
             if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
+            invalidate(courseId);
         }
     }
     
     public boolean courseCodeExists(String courseCode) throws SQLException {
         String query = "SELECT COUNT(*) FROM courses WHERE course_code = ?";
         
+        if (!CODE_FILTER.mightContain(courseCode)) {
+            return false;
+        }
+        
         Connection conn = null;
         PreparedStatement pstmt = null;
         ResultSet rs = null;
@@ -257,14 +590,38 @@ public class CourseDAO {
             pstmt.setString(1, courseCode);
             rs = pstmt.executeQuery();
             
-            if (rs.next()) {
-                return rs.getInt(1) > 0;
-            }
-            return false;
+            boolean exists = rs.next() && rs.getInt(1) > 0;
+            CODE_FILTER.recordLookup(exists);
+            return exists;
         } finally {
             if (rs != null) rs.close();
             if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
+        }
+    }
+    
+    // Drops the course from the cache now and, if a transaction is open, again once it ends:
+    // until then other threads still read the old row and could cache it again.
+    private void invalidate(final int courseId) {
+        COURSE_CACHE.invalidate(courseId);
+        if (DatabaseConfig.isInTransaction()) {
+            DatabaseConfig.runAfterTransaction(new Runnable() {
+                public void run() {
+                    COURSE_CACHE.invalidate(courseId);
+                }
+            });
+        }
+    }
+    
+    private int countUpdated(int[] results) {
+        int count = 0;
+        for (int result : results) {
+            // Rewritten batches report SUCCESS_NO_INFO instead of a row count
+            if (result > 0 || result == Statement.SUCCESS_NO_INFO) {
+                count++;
+            }
         }
+        return count;
     }
     
     private Course mapResultSetToCourse(ResultSet rs) throws SQLException {
@@ -0,0 +1,238 @@
+package com.college.admission.dao;
+
+import com.college.admission.util.BloomFilter;
+import com.college.admission.util.DatabaseConfig;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Bloom filter over the values of one unique column (student emails, course codes), used to
+// answer "definitely not present" without a query. Keys are compared lower-cased.
+//
+// The filter is built from a full scan on a background thread the first time it is needed,
+// sized from the row count with headroom, and rebuilt the same way when it gets old or fills
+// past its sizing. Until the first build finishes every key is a possible hit. A failed build
+// is retried with exponential backoff.
+// Keys written through the DAO are added as they are written. They are also remembered until
+// the next rebuild finishes and replayed into it, because a scan does not see rows whose
+// transaction had not committed when it started. Deleted keys stay in the filter until the
+// next rebuild. The unique key on the column stays the final arbiter for inserts.
+class KeyExistenceFilter {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final long MIN_EXPECTED_KEYS = 10000;
+    private static final long REBUILD_INTERVAL_MS = 3600000;
+    private static final long MIN_RETRY_DELAY_MS = 5000;
+
+    private final String name;
+    private final String countQuery;
+    private final String keysQuery;
+
+    private volatile BloomFilter current;
+    // Guarded by addLock, which add() holds so a rebuild cannot swap filters halfway through it
+    private BloomFilter building;
+    // Keys added since the current filter's scan started, and since the running rebuild's did
+    private ConcurrentLinkedQueue<String> addedSinceCurrentBuild = new ConcurrentLinkedQueue<String>();
+    private ConcurrentLinkedQueue<String> addedSinceNextBuild;
+    private volatile long builtAt;
+    private final Object buildLock = new Object();
+    private final Object addLock = new Object();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private volatile long retryAfter = 0;
+    private long retryDelay = MIN_RETRY_DELAY_MS; // only touched by the rebuild thread
+    private final ExecutorService rebuilder;
+
+    private final AtomicLong definiteNegatives = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+    private final AtomicLong truePositives = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    KeyExistenceFilter(final String name, String countQuery, String keysQuery) {
+        this.name = name;
+        this.countQuery = countQuery;
+        this.keysQuery = keysQuery;
+        this.rebuilder = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, name + "-filter-rebuild");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
+    // False only when the key is definitely not in the table
+    boolean mightContain(String key) {
+        BloomFilter filter = current;
+        if (filter == null) {
+            scheduleRebuild();
+            return true;
+        }
+        if (needsRebuild(filter)) {
+            scheduleRebuild();
+        }
+        if (filter.mightContain(normalize(key))) {
+            return true;
+        }
+        definiteNegatives.incrementAndGet();
+        return false;
+    }
+
+    // Called with the database answer after mightContain() returned true
+    void recordLookup(boolean found) {
+        if (current == null) {
+            // The filter was not consulted
+            return;
+        }
+        if (found) {
+            truePositives.incrementAndGet();
+        } else {
+            falsePositives.incrementAndGet();
+        }
+    }
+
+    void add(String key) {
+        if (key == null) {
+            return;
+        }
+        String normalized = normalize(key);
+        synchronized (addLock) {
+            if (building != null) {
+                building.put(normalized);
+                addedSinceNextBuild.add(normalized);
+            }
+            addedSinceCurrentBuild.add(normalized);
+            if (current != null) {
+                current.put(normalized);
+            }
+        }
+    }
+
+    long getDefiniteNegatives() {
+        return definiteNegatives.get();
+    }
+
+    long getFalsePositives() {
+        return falsePositives.get();
+    }
+
+    long getTruePositives() {
+        return truePositives.get();
+    }
+
+    // Share of absent keys the filter failed to rule out
+    double getObservedFalsePositiveRate() {
+        long negatives = definiteNegatives.get() + falsePositives.get();
+        return negatives == 0 ? 0.0 : (double) falsePositives.get() / negatives;
+    }
+
+    @Override
+    public String toString() {
+        BloomFilter filter = current;
+        return name + " filter{keys=" + (filter == null ? 0 : filter.getInsertions()) +
+                "/" + (filter == null ? 0 : filter.getExpectedInsertions()) +
+                ", definiteNegatives=" + definiteNegatives.get() +
+                ", falsePositives=" + falsePositives.get() +
+                ", truePositives=" + truePositives.get() +
+                ", observedFpRate=" + String.format("%.4f", getObservedFalsePositiveRate()) +
+                ", rebuilds=" + rebuilds.get() + "}";
+    }
+
+    private boolean needsRebuild(BloomFilter filter) {
+        return System.currentTimeMillis() - builtAt > REBUILD_INTERVAL_MS
+                || filter.getInsertions() > filter.getExpectedInsertions();
+    }
+
+    private void scheduleRebuild() {
+        if (System.currentTimeMillis() < retryAfter || !rebuildScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        rebuilder.execute(new Runnable() {
+            public void run() {
+                try {
+                    synchronized (buildLock) {
+                        rebuild();
+                    }
+                    retryDelay = MIN_RETRY_DELAY_MS;
+                } catch (SQLException e) {
+                    System.err.println("Could not build " + name + " filter, retrying in " + 
+                                       (retryDelay / 1000) + " s: " + e.getMessage());
+                    retryAfter = System.currentTimeMillis() + retryDelay;
+                    retryDelay = Math.min(REBUILD_INTERVAL_MS, retryDelay * 2);
+                    // Keys only wait here for a build to replay them into; the next scan sees
+                    // the committed ones, so do not let them pile up while builds keep failing
+                    synchronized (addLock) {
+                        addedSinceCurrentBuild.clear();
+                    }
+                } finally {
+                    rebuildScheduled.set(false);
+                }
+            }
+        });
+    }
+
+    // Caller holds buildLock
+    private void rebuild() throws SQLException {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConfig.getConnection();
+            pstmt = conn.prepareStatement(countQuery);
+            rs = pstmt.executeQuery();
+            long rows = rs.next() ? rs.getLong(1) : 0;
+            rs.close();
+            rs = null;
+            pstmt.close();
+            pstmt = null;
+
+            // Twice the current size so growth until the next rebuild keeps the rate down
+            BloomFilter next = new BloomFilter(Math.max(MIN_EXPECTED_KEYS, rows * 2), FALSE_POSITIVE_RATE);
+            synchronized (addLock) {
+                addedSinceNextBuild = new ConcurrentLinkedQueue<String>();
+                building = next;
+            }
+            pstmt = conn.prepareStatement(keysQuery, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            pstmt.setFetchSize(DatabaseConfig.getStreamFetchSize());
+            rs = pstmt.executeQuery();
+            while (rs.next()) {
+                String key = rs.getString(1);
+                if (key != null) {
+                    next.put(normalize(key));
+                }
+            }
+
+            // Replay and swap in one step, so no add() falls between them
+            synchronized (addLock) {
+                for (String key : addedSinceCurrentBuild) {
+                    next.put(key);
+                }
+                current = next;
+                addedSinceCurrentBuild = addedSinceNextBuild;
+            }
+            builtAt = System.currentTimeMillis();
+            rebuilds.incrementAndGet();
+        } finally {
+            synchronized (addLock) {
+                building = null;
+                addedSinceNextBuild = null;
+            }
+            if (rs != null) rs.close();
+            if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
+        }
+    }
+
+    private String normalize(String key) {
+        return key.trim().toLowerCase(Locale.ROOT);
+    }
+}
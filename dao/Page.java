@@ -0,0 +1,56 @@
+package com.college.admission.dao;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+// One page of a keyset-paginated listing. The continuation token is opaque to callers:
+// pass it back to get the next page. It is null on the last page.
+public class Page<T> {
+    private final List<T> items;
+    private final String nextPageToken;
+
+    public Page(List<T> items, String nextPageToken) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextPageToken = nextPageToken;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+
+    public boolean hasNextPage() {
+        return nextPageToken != null;
+    }
+
+    // Tokens encode the sort key of the last row returned: "<epochMillis>:<id>" or "<id>"
+    static String token(long timestampMillis, int id) {
+        return timestampMillis + ":" + id;
+    }
+
+    static String token(int id) {
+        return String.valueOf(id);
+    }
+
+    static long[] parseTimestampToken(String token) throws SQLException {
+        try {
+            int separator = token.indexOf(':');
+            return new long[] { Long.parseLong(token.substring(0, separator)),
+                                Integer.parseInt(token.substring(separator + 1)) };
+        } catch (RuntimeException e) {
+            throw new SQLException("Invalid page token: " + token);
+        }
+    }
+
+    static int parseIdToken(String token) throws SQLException {
+        try {
+            return Integer.parseInt(token);
+        } catch (NumberFormatException e) {
+            throw new SQLException("Invalid page token: " + token);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.college.admission.dao;
+
+import java.sql.SQLException;
+
+// Callback for the streaming DAO reads; called once per row while the cursor is open
+public interface RowHandler<T> {
+    void handle(T row) throws SQLException;
+}
@@ -0,0 +1,49 @@
+package com.college.admission.dao;
+
+import com.college.admission.model.AdmissionStatistics;
+import com.college.admission.util.DatabaseConfig;
+
+import java.sql.*;
+
+public class StatisticsDAO {
+    
+    // All statistics in one round trip: conditional aggregation over applications, plus
+    // scalar aggregates over courses and students
+    public AdmissionStatistics getAdmissionStatistics() throws SQLException {
+        String query = "SELECT COUNT(*) AS total_applications, " +
+                      "COALESCE(SUM(a.status = 'APPROVED'), 0) AS approved_applications, " +
+                      "COALESCE(SUM(a.status = 'REJECTED'), 0) AS rejected_applications, " +
+                      "COALESCE(SUM(a.status = 'WAITLISTED'), 0) AS waitlisted_applications, " +
+                      "COALESCE(SUM(a.status = 'PENDING'), 0) AS pending_applications, " +
+                      "(SELECT COALESCE(SUM(c.available_seats), 0) FROM courses c " +
+                      " WHERE c.status = 'ACTIVE') AS total_seats_available, " +
+                      "(SELECT COALESCE(AVG(s.grade12_percentage), 0) FROM students s) AS average_percentage " +
+                      "FROM applications a";
+        
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        
+        try {
+            conn = DatabaseConfig.getConnection();
+            pstmt = conn.prepareStatement(query);
+            rs = pstmt.executeQuery();
+            
+            AdmissionStatistics statistics = new AdmissionStatistics();
+            if (rs.next()) {
+                statistics.setTotalApplications(rs.getInt("total_applications"));
+                statistics.setApprovedApplications(rs.getInt("approved_applications"));
+                statistics.setRejectedApplications(rs.getInt("rejected_applications"));
+                statistics.setWaitlistedApplications(rs.getInt("waitlisted_applications"));
+                statistics.setPendingApplications(rs.getInt("pending_applications"));
+                statistics.setTotalSeatsAvailable(rs.getInt("total_seats_available"));
+                statistics.setAverageGrade12Percentage(rs.getDouble("average_percentage"));
+            }
+            return statistics;
+        } finally {
+            if (rs != null) rs.close();
+            if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
+        }
+    }
+}
@@ -2,13 +2,48 @@ package com.college.admission.dao;
 
 import com.college.admission.model.Student;
 import com.college.admission.util.DatabaseConfig;
+import com.college.admission.util.EntityCache;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 public class StudentDAO {
     
+    private static final int EMAIL_LOOKUP_CHUNK_SIZE = 1000;
+    // Bounded so memory stays flat however many students are registered; override with
+    // -Dcollege.admission.studentCacheSize=N
+    private static final int STUDENT_CACHE_MAX_ENTRIES = Integer.getInteger("college.admission.studentCacheSize", 50000);
+    private static final long STUDENT_CACHE_TTL_MS = 300000;
+    
+    // LRU by student id, with the lower-cased email as secondary key. Shared by all instances.
+    private static final EntityCache<Student> STUDENT_CACHE = new EntityCache<Student>(
+            "student", STUDENT_CACHE_MAX_ENTRIES, STUDENT_CACHE_TTL_MS, new EntityCache.Copier<Student>() {
+                public Student copy(Student student) {
+                    return new Student(student);
+                }
+            });
+    
+    // Lets emailExists answer "no" for unregistered emails without a query
+    private static final KeyExistenceFilter EMAIL_FILTER = new KeyExistenceFilter(
+            "email", "SELECT COUNT(*) FROM students", "SELECT email FROM students");
+    
+    public static EntityCache<Student> getCache() {
+        return STUDENT_CACHE;
+    }
+    
+    public static String getEmailFilterStats() {
+        return EMAIL_FILTER.toString();
+    }
+    
+    public static double getEmailFilterFalsePositiveRate() {
+        return EMAIL_FILTER.getObservedFalsePositiveRate();
+    }
+    
     public int addStudent(Student student) throws SQLException {
         String query = "INSERT INTO students (first_name, last_name, email, phone, date_of_birth, " +
                       "address, grade12_percentage, category, registration_date, status) " +
@@ -33,6 +68,8 @@ public class StudentDAO {
             pstmt.setTimestamp(9, new Timestamp(student.getRegistrationDate().getTime()));
             pstmt.setString(10, student.getStatus());
             
+            // Added before the insert so no concurrent check can miss the new email
+            EMAIL_FILTER.add(student.getEmail());
             int affectedRows = pstmt.executeUpdate();
             
             if (affectedRows > 0) {
@@ -47,12 +84,82 @@ public class StudentDAO {
         } finally {
             if (rs != null) rs.close();
             if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
         }
     }
     
+    // Inserts the students with JDBC batching, executing a batch every batchSize rows, and sets
+    // the generated ids on them. Returns the number of rows inserted.
+    public int addStudents(List<Student> students, int batchSize) throws SQLException {
+        String query = "INSERT INTO students (first_name, last_name, email, phone, date_of_birth, " +
+                      "address, grade12_percentage, category, registration_date, status) " +
+                      "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        
+        if (students.isEmpty()) {
+            return 0;
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be greater than 0");
+        }
+        
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        int inserted = 0;
+        
+        try {
+            conn = DatabaseConfig.getConnection();
+            pstmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
+            
+            int batchStart = 0;
+            for (int i = 0; i < students.size(); i++) {
+                Student student = students.get(i);
+                pstmt.setString(1, student.getFirstName());
+                pstmt.setString(2, student.getLastName());
+                pstmt.setString(3, student.getEmail());
+                pstmt.setString(4, student.getPhone());
+                if (student.getDateOfBirth() != null) {
+                    pstmt.setDate(5, new java.sql.Date(student.getDateOfBirth().getTime()));
+                } else {
+                    pstmt.setNull(5, Types.DATE);
+                }
+                pstmt.setString(6, student.getAddress());
+                pstmt.setDouble(7, student.getGrade12Percentage());
+                pstmt.setString(8, student.getCategory());
+                pstmt.setTimestamp(9, new Timestamp(student.getRegistrationDate().getTime()));
+                pstmt.setString(10, student.getStatus());
+                pstmt.addBatch();
+                EMAIL_FILTER.add(student.getEmail());
+                
+                if (i - batchStart + 1 == batchSize || i == students.size() - 1) {
+                    for (int result : pstmt.executeBatch()) {
+                        if (result > 0 || result == Statement.SUCCESS_NO_INFO) {
+                            inserted++;
+                        }
+                    }
+                    assignGeneratedIds(pstmt, students, batchStart);
+                    batchStart = i + 1;
+                }
+            }
+            return inserted;
+        } finally {
+            if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
+        }
+    }
+    
+    // Served from the student cache outside transactions
     public Student getStudentById(int studentId) throws SQLException {
         String query = "SELECT * FROM students WHERE student_id = ?";
         
+        boolean cacheable = !DatabaseConfig.isInTransaction();
+        if (cacheable) {
+            Student cached = STUDENT_CACHE.get(studentId);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        long stamp = STUDENT_CACHE.stamp(studentId);
+        
         Connection conn = null;
         PreparedStatement pstmt = null;
         ResultSet rs = null;
@@ -65,18 +172,32 @@ public class StudentDAO {
             rs = pstmt.executeQuery();
             
             if (rs.next()) {
-                return mapResultSetToStudent(rs);
+                Student student = mapResultSetToStudent(rs);
+                if (cacheable) {
+                    STUDENT_CACHE.put(studentId, emailKey(student.getEmail()), student, stamp);
+                }
+                return student;
             }
             return null;
         } finally {
             if (rs != null) rs.close();
             if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
         }
     }
     
     public Student getStudentByEmail(String email) throws SQLException {
         String query = "SELECT * FROM students WHERE email = ?";
         
+        boolean cacheable = !DatabaseConfig.isInTransaction();
+        if (cacheable) {
+            Student cached = STUDENT_CACHE.getBySecondaryKey(emailKey(email));
+            if (cached != null) {
+                return cached;
+            }
+        }
+        long stamp = STUDENT_CACHE.secondaryStamp();
+        
         Connection conn = null;
         PreparedStatement pstmt = null;
         ResultSet rs = null;
@@ -89,12 +210,18 @@ public class StudentDAO {
             rs = pstmt.executeQuery();
             
             if (rs.next()) {
-                return mapResultSetToStudent(rs);
+                Student student = mapResultSetToStudent(rs);
+                if (cacheable) {
+                    STUDENT_CACHE.putBySecondaryKey(student.getStudentId(), emailKey(student.getEmail()), 
+                                                    student, stamp);
+                }
+                return student;
             }
             return null;
         } finally {
             if (rs != null) rs.close();
             if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
         }
     }
     
@@ -118,6 +245,83 @@ public class StudentDAO {
         } finally {
             if (rs != null) rs.close();
             if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
+        }
+    }
+    
+    // Streaming variant of getAllStudents: rows are handed to the handler as they are fetched
+    public void streamAllStudents(RowHandler<Student> handler) throws SQLException {
+        String query = "SELECT * FROM students ORDER BY registration_date DESC";
+        
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        
+        try {
+            conn = DatabaseConfig.getConnection();
+            pstmt = conn.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            pstmt.setFetchSize(DatabaseConfig.getStreamFetchSize());
+            rs = pstmt.executeQuery();
+            
+            while (rs.next()) {
+                handler.handle(mapResultSetToStudent(rs));
+            }
+        } finally {
+            if (rs != null) rs.close();
+            if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
+        }
+    }
+    
+    // Keyset (seek) pagination over students, newest registrations first. Pass null for the
+    // first page and the previous page's token after that; cost does not grow with page depth.
+    public Page<Student> getStudentsPage(String pageToken, int pageSize) throws SQLException {
+        String firstPageQuery = "SELECT * FROM students " +
+                               "ORDER BY registration_date DESC, student_id DESC LIMIT ?";
+        String nextPageQuery = "SELECT * FROM students " +
+                              "WHERE registration_date < ? OR (registration_date = ? AND student_id < ?) " +
+                              "ORDER BY registration_date DESC, student_id DESC LIMIT ?";
+        
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        List<Student> items = new ArrayList<Student>(pageSize);
+        
+        try {
+            conn = DatabaseConfig.getConnection();
+            if (pageToken == null) {
+                pstmt = conn.prepareStatement(firstPageQuery);
+                pstmt.setInt(1, pageSize + 1);
+            } else {
+                long[] key = Page.parseTimestampToken(pageToken);
+                Timestamp lastTimestamp = new Timestamp(key[0]);
+                pstmt = conn.prepareStatement(nextPageQuery);
+                pstmt.setTimestamp(1, lastTimestamp);
+                pstmt.setTimestamp(2, lastTimestamp);
+                pstmt.setInt(3, (int) key[1]);
+                pstmt.setInt(4, pageSize + 1);
+            }
+            rs = pstmt.executeQuery();
+            
+            // One extra row is fetched only to learn whether another page exists
+            boolean hasMore = false;
+            while (rs.next()) {
+                if (items.size() == pageSize) {
+                    hasMore = true;
+                    break;
+                }
+                items.add(mapResultSetToStudent(rs));
+            }
+            String nextPageToken = null;
+            if (hasMore && !items.isEmpty()) {
+                Student last = items.get(items.size() - 1);
+                nextPageToken = Page.token(last.getRegistrationDate().getTime(), last.getStudentId());
+            }
+            return new Page<Student>(items, nextPageToken);
+        } finally {
+            if (rs != null) rs.close();
+            if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
         }
     }
     
@@ -142,6 +346,7 @@ public class StudentDAO {
         } finally {
             if (rs != null) rs.close();
             if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
         }
     }
     
@@ -168,10 +373,13 @@ public class StudentDAO {
             pstmt.setString(9, student.getStatus());
             pstmt.setInt(10, student.getStudentId());
             
+            EMAIL_FILTER.add(student.getEmail());
             int affectedRows = pstmt.executeUpdate();
             return affectedRows > 0;
         } finally {
             if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
+            invalidate(student.getStudentId());
         }
     }
     
@@ -190,12 +398,67 @@ public class StudentDAO {
             return affectedRows > 0;
         } finally {
             if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
+            invalidate(studentId);
         }
     }
     
+    // Returns which of the given emails are already registered (lower-cased), querying in
+    // chunks of IN lists rather than once per email
+    public Set<String> findExistingEmails(Collection<String> emails) throws SQLException {
+        Set<String> existing = new HashSet<String>();
+        if (emails.isEmpty()) {
+            return existing;
+        }
+        
+        List<String> pending = new ArrayList<String>(emails);
+        Connection conn = null;
+        
+        try {
+            conn = DatabaseConfig.getConnection();
+            for (int start = 0; start < pending.size(); start += EMAIL_LOOKUP_CHUNK_SIZE) {
+                List<String> chunk = pending.subList(start, Math.min(start + EMAIL_LOOKUP_CHUNK_SIZE, pending.size()));
+                StringBuilder query = new StringBuilder("SELECT email FROM students WHERE email IN (");
+                for (int i = 0; i < chunk.size(); i++) {
+                    query.append(i == 0 ? "?" : ", ?");
+                }
+                query.append(")");
+                
+                PreparedStatement pstmt = null;
+                ResultSet rs = null;
+                try {
+                    pstmt = conn.prepareStatement(query.toString());
+                    for (int i = 0; i < chunk.size(); i++) {
+                        pstmt.setString(i + 1, chunk.get(i));
+                    }
+                    rs = pstmt.executeQuery();
+                    while (rs.next()) {
+                        existing.add(rs.getString(1).toLowerCase(Locale.ROOT));
+                    }
+                } finally {
+                    if (rs != null) rs.close();
+                    if (pstmt != null) pstmt.close();
+                }
+            }
+            return existing;
+        } finally {
+            if (conn != null) conn.close();
+        }
+    }
+    
+    // A cached student answers "exists" from memory; only misses go to the database
     public boolean emailExists(String email) throws SQLException {
         String query = "SELECT COUNT(*) FROM students WHERE email = ?";
         
+        // Filter first, so unknown emails do not count as student cache misses
+        if (!EMAIL_FILTER.mightContain(email)) {
+            return false;
+        }
+        if (!DatabaseConfig.isInTransaction() && STUDENT_CACHE.getBySecondaryKey(emailKey(email)) != null) {
+            EMAIL_FILTER.recordLookup(true);
+            return true;
+        }
+        
         Connection conn = null;
         PreparedStatement pstmt = null;
         ResultSet rs = null;
@@ -206,13 +469,41 @@ public class StudentDAO {
             pstmt.setString(1, email);
             rs = pstmt.executeQuery();
             
-            if (rs.next()) {
-                return rs.getInt(1) > 0;
-            }
-            return false;
+            boolean exists = rs.next() && rs.getInt(1) > 0;
+            EMAIL_FILTER.recordLookup(exists);
+            return exists;
         } finally {
             if (rs != null) rs.close();
             if (pstmt != null) pstmt.close();
+            if (conn != null) conn.close();
+        }
+    }
+    
+    // Same pattern as the course cache: drop now, and again when the open transaction ends
+    private void invalidate(final int studentId) {
+        STUDENT_CACHE.invalidate(studentId);
+        if (DatabaseConfig.isInTransaction()) {
+            DatabaseConfig.runAfterTransaction(new Runnable() {
+                public void run() {
+                    STUDENT_CACHE.invalidate(studentId);
+                }
+            });
+        }
+    }
+    
+    private String emailKey(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private void assignGeneratedIds(PreparedStatement pstmt, List<Student> students, int batchStart) throws SQLException {
+        ResultSet rs = pstmt.getGeneratedKeys();
+        try {
+            int index = batchStart;
+            while (rs.next() && index < students.size()) {
+                students.get(index++).setStudentId(rs.getInt(1));
+            }
+        } finally {
+            rs.close();
         }
     }
     
@@ -0,0 +1,81 @@
+package com.college.admission.model;
+
+// Point-in-time snapshot of the numbers shown on the statistics screen
+public class AdmissionStatistics {
+    private int totalApplications;
+    private int approvedApplications;
+    private int rejectedApplications;
+    private int waitlistedApplications;
+    private int pendingApplications;
+    private int totalSeatsAvailable;
+    private double averageGrade12Percentage;
+
+    public int getTotalApplications() {
+        return totalApplications;
+    }
+
+    public void setTotalApplications(int totalApplications) {
+        this.totalApplications = totalApplications;
+    }
+
+    public int getApprovedApplications() {
+        return approvedApplications;
+    }
+
+    public void setApprovedApplications(int approvedApplications) {
+        this.approvedApplications = approvedApplications;
+    }
+
+    public int getRejectedApplications() {
+        return rejectedApplications;
+    }
+
+    public void setRejectedApplications(int rejectedApplications) {
+        this.rejectedApplications = rejectedApplications;
+    }
+
+    public int getWaitlistedApplications() {
+        return waitlistedApplications;
+    }
+
+    public void setWaitlistedApplications(int waitlistedApplications) {
+        this.waitlistedApplications = waitlistedApplications;
+    }
+
+    public int getPendingApplications() {
+        return pendingApplications;
+    }
+
+    public void setPendingApplications(int pendingApplications) {
+        this.pendingApplications = pendingApplications;
+    }
+
+    public int getTotalSeatsAvailable() {
+        return totalSeatsAvailable;
+    }
+
+    public void setTotalSeatsAvailable(int totalSeatsAvailable) {
+        this.totalSeatsAvailable = totalSeatsAvailable;
+    }
+
+    public double getAverageGrade12Percentage() {
+        return averageGrade12Percentage;
+    }
+
+    public void setAverageGrade12Percentage(double averageGrade12Percentage) {
+        this.averageGrade12Percentage = averageGrade12Percentage;
+    }
+
+    @Override
+    public String toString() {
+        return "AdmissionStatistics{" +
+                "totalApplications=" + totalApplications +
+                ", approved=" + approvedApplications +
+                ", rejected=" + rejectedApplications +
+                ", waitlisted=" + waitlistedApplications +
+                ", pending=" + pendingApplications +
+                ", totalSeatsAvailable=" + totalSeatsAvailable +
+                ", averageGrade12Percentage=" + averageGrade12Percentage +
+                '}';
+    }
+}
@@ -12,6 +12,9 @@ public class Application {
     private double meritScore;
     private int preference; // 1st preference, 2nd preference, etc.
     private Date lastUpdated;
+    // Student details, only populated by queries that join the students table
+    private String studentCategory;
+    private double studentPercentage;
 
     // Default constructor
     public Application() {
@@ -115,6 +118,22 @@ public class Application {
         this.lastUpdated = lastUpdated;
     }
 
+    public String getStudentCategory() {
+        return studentCategory;
+    }
+
+    public void setStudentCategory(String studentCategory) {
+        this.studentCategory = studentCategory;
+    }
+
+    public double getStudentPercentage() {
+        return studentPercentage;
+    }
+
+    public void setStudentPercentage(double studentPercentage) {
+        this.studentPercentage = studentPercentage;
+    }
+
     public boolean isApproved() {
         return "APPROVED".equals(status);
     }
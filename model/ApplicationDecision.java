@@ -0,0 +1,35 @@
+package com.college.admission.model;
+
+// A status change for one application, used for batched status updates
+public class ApplicationDecision {
+    private int applicationId;
+    private String status;
+    private String remarks;
+
+    public ApplicationDecision(int applicationId, String status, String remarks) {
+        this.applicationId = applicationId;
+        this.status = status;
+        this.remarks = remarks;
+    }
+
+    public int getApplicationId() {
+        return applicationId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getRemarks() {
+        return remarks;
+    }
+
+    @Override
+    public String toString() {
+        return "ApplicationDecision{" +
+                "applicationId=" + applicationId +
+                ", status='" + status + '\'' +
+                ", remarks='" + remarks + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,83 @@
+package com.college.admission.model;
+
+// Application plus the student and course columns from the applications/students/courses join,
+// so listings and reports do not need a lookup per row
+public class ApplicationDetail extends Application {
+    private String studentFirstName;
+    private String studentLastName;
+    private String studentEmail;
+    private String courseName;
+    private String courseCode;
+    private String department;
+
+    public ApplicationDetail() {
+        super();
+    }
+
+    public String getStudentFirstName() {
+        return studentFirstName;
+    }
+
+    public void setStudentFirstName(String studentFirstName) {
+        this.studentFirstName = studentFirstName;
+    }
+
+    public String getStudentLastName() {
+        return studentLastName;
+    }
+
+    public void setStudentLastName(String studentLastName) {
+        this.studentLastName = studentLastName;
+    }
+
+    public String getStudentName() {
+        return studentFirstName + " " + studentLastName;
+    }
+
+    public String getStudentEmail() {
+        return studentEmail;
+    }
+
+    public void setStudentEmail(String studentEmail) {
+        this.studentEmail = studentEmail;
+    }
+
+    public String getCourseName() {
+        return courseName;
+    }
+
+    public void setCourseName(String courseName) {
+        this.courseName = courseName;
+    }
+
+    public String getCourseCode() {
+        return courseCode;
+    }
+
+    public void setCourseCode(String courseCode) {
+        this.courseCode = courseCode;
+    }
+
+    public String getDepartment() {
+        return department;
+    }
+
+    public void setDepartment(String department) {
+        this.department = department;
+    }
+
+    @Override
+    public String toString() {
+        return "ApplicationDetail{" +
+                "applicationId=" + getApplicationId() +
+                ", studentId=" + getStudentId() +
+                ", studentName='" + getStudentName() + '\'' +
+                ", studentCategory='" + getStudentCategory() + '\'' +
+                ", courseId=" + getCourseId() +
+                ", courseCode='" + courseCode + '\'' +
+                ", status='" + getStatus() + '\'' +
+                ", meritScore=" + getMeritScore() +
+                ", preference=" + getPreference() +
+                '}';
+    }
+}
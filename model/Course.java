@@ -41,6 +41,24 @@ public class Course {
         this.department = department;
     }
 
+    // Copy constructor
+    public Course(Course other) {
+        this.courseId = other.courseId;
+        this.courseName = other.courseName;
+        this.courseCode = other.courseCode;
+        this.description = other.description;
+        this.duration = other.duration;
+        this.totalSeats = other.totalSeats;
+        this.availableSeats = other.availableSeats;
+        this.generalCutoff = other.generalCutoff;
+        this.obcCutoff = other.obcCutoff;
+        this.scCutoff = other.scCutoff;
+        this.stCutoff = other.stCutoff;
+        this.fees = other.fees;
+        this.department = other.department;
+        this.status = other.status;
+    }
+
     // Getters and Setters
     public int getCourseId() {
         return courseId;
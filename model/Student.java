@@ -35,6 +35,21 @@ public class Student {
         this.category = category;
     }
 
+    // Copy constructor
+    public Student(Student other) {
+        this.studentId = other.studentId;
+        this.firstName = other.firstName;
+        this.lastName = other.lastName;
+        this.email = other.email;
+        this.phone = other.phone;
+        this.dateOfBirth = other.dateOfBirth == null ? null : (Date) other.dateOfBirth.clone();
+        this.address = other.address;
+        this.grade12Percentage = other.grade12Percentage;
+        this.category = other.category;
+        this.registrationDate = other.registrationDate == null ? null : (Date) other.registrationDate.clone();
+        this.status = other.status;
+    }
+
     // Getters and Setters
     public int getStudentId() {
         return studentId;
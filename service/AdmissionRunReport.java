@@ -0,0 +1,77 @@
+package com.college.admission.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Aggregated outcome of processAdmissions across all courses
+public class AdmissionRunReport {
+    private final List<CourseAdmissionResult> courseResults = new ArrayList<CourseAdmissionResult>();
+    private long elapsedMillis;
+
+    void addCourseResult(CourseAdmissionResult result) {
+        courseResults.add(result);
+    }
+
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public List<CourseAdmissionResult> getCourseResults() {
+        return Collections.unmodifiableList(courseResults);
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public int getCoursesProcessed() {
+        return courseResults.size();
+    }
+
+    public int getCoursesFailed() {
+        int failed = 0;
+        for (CourseAdmissionResult result : courseResults) {
+            if (!result.isSuccessful()) {
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    public int getTotalApproved() {
+        int total = 0;
+        for (CourseAdmissionResult result : courseResults) {
+            total += result.getApproved();
+        }
+        return total;
+    }
+
+    public int getTotalWaitlisted() {
+        int total = 0;
+        for (CourseAdmissionResult result : courseResults) {
+            total += result.getWaitlisted();
+        }
+        return total;
+    }
+
+    public int getTotalRejected() {
+        int total = 0;
+        for (CourseAdmissionResult result : courseResults) {
+            total += result.getRejected();
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return "AdmissionRunReport{" +
+                "courses=" + getCoursesProcessed() +
+                ", failed=" + getCoursesFailed() +
+                ", approved=" + getTotalApproved() +
+                ", waitlisted=" + getTotalWaitlisted() +
+                ", rejected=" + getTotalRejected() +
+                ", elapsedMillis=" + elapsedMillis +
+                '}';
+    }
+}
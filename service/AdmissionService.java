@@ -1,30 +1,95 @@
 package com.college.admission.service;
 
 import com.college.admission.dao.ApplicationDAO;
+import com.college.admission.dao.ApplicationDetailFilter;
 import com.college.admission.dao.CourseDAO;
+import com.college.admission.dao.Page;
+import com.college.admission.dao.RowHandler;
+import com.college.admission.dao.StatisticsDAO;
 import com.college.admission.dao.StudentDAO;
+import com.college.admission.model.AdmissionStatistics;
 import com.college.admission.model.Application;
+import com.college.admission.model.ApplicationDecision;
+import com.college.admission.model.ApplicationDetail;
 import com.college.admission.model.Course;
 import com.college.admission.model.Student;
+import com.college.admission.util.CsvWriter;
+import com.college.admission.util.DatabaseConfig;
+import com.college.admission.util.EntityCache;
 
-import java.io.FileWriter;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 public class AdmissionService {
     
     private StudentDAO studentDAO;
     private CourseDAO courseDAO;
     private ApplicationDAO applicationDAO;
+    private StatisticsDAO statisticsDAO;
+    
+    private static final int DEFAULT_STATUS_BATCH_SIZE = 500;
+    
+    // MySQL error codes raised by the applications constraints
+    private static final int MYSQL_DUPLICATE_KEY = 1062;
+    private static final int MYSQL_NO_REFERENCED_ROW = 1452;
+    private static final String FK_APPLICATIONS_STUDENT = "fk_applications_student";
+    private static final String FK_APPLICATIONS_COURSE = "fk_applications_course";
+    
+    // Shared like the DAO caches, so changes made through any instance keep it current
+    private static final MeritIndex MERIT_INDEX = new MeritIndex(new ApplicationDAO(), new CourseDAO());
+    
+    private int statusBatchSize = DEFAULT_STATUS_BATCH_SIZE;
+    private int admissionIsolationLevel = Connection.TRANSACTION_REPEATABLE_READ;
     
     public AdmissionService() {
         this.studentDAO = new StudentDAO();
         this.courseDAO = new CourseDAO();
         this.applicationDAO = new ApplicationDAO();
+        this.statisticsDAO = new StatisticsDAO();
+    }
+    
+    public int getStatusBatchSize() {
+        return statusBatchSize;
+    }
+    
+    // Number of status decisions sent per JDBC batch during an admission run
+    public void setStatusBatchSize(int statusBatchSize) {
+        if (statusBatchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be greater than 0");
+        }
+        this.statusBatchSize = statusBatchSize;
+    }
+    
+    public int getAdmissionIsolationLevel() {
+        return admissionIsolationLevel;
+    }
+    
+    // Isolation level (a Connection.TRANSACTION_* constant) for each course's admission transaction
+    public void setAdmissionIsolationLevel(int admissionIsolationLevel) {
+        this.admissionIsolationLevel = admissionIsolationLevel;
     }
     
     // Student Management
@@ -39,7 +104,15 @@ public class AdmissionService {
             throw new IllegalArgumentException("Grade 12 percentage must be between 0 and 100");
         }
         
-        return studentDAO.addStudent(student);
+        try {
+            return studentDAO.addStudent(student);
+        } catch (SQLException e) {
+            // The pre-check can miss emails registered elsewhere since the filter was built
+            if (e.getErrorCode() == MYSQL_DUPLICATE_KEY) {
+                throw new SQLException("Email already exists: " + student.getEmail(), e.getSQLState(), e.getErrorCode(), e);
+            }
+            throw e;
+        }
     }
     
     public Student getStudentById(int studentId) throws SQLException {
@@ -50,8 +123,15 @@ public class AdmissionService {
         return studentDAO.getAllStudents();
     }
     
+    public Page<Student> getStudentsPage(String pageToken, int pageSize) throws SQLException {
+        return studentDAO.getStudentsPage(pageToken, pageSize);
+    }
+    
     public boolean updateStudent(Student student) throws SQLException {
-        return studentDAO.updateStudent(student);
+        boolean updated = studentDAO.updateStudent(student);
+        // The category may have changed, which moves the student's applications between lists
+        MERIT_INDEX.clear();
+        return updated;
     }
     
     // Course Management
@@ -66,7 +146,14 @@ public class AdmissionService {
             throw new IllegalArgumentException("Total seats must be greater than 0");
         }
         
-        return courseDAO.addCourse(course);
+        try {
+            return courseDAO.addCourse(course);
+        } catch (SQLException e) {
+            if (e.getErrorCode() == MYSQL_DUPLICATE_KEY) {
+                throw new SQLException("Course code already exists: " + course.getCourseCode(), e.getSQLState(), e.getErrorCode(), e);
+            }
+            throw e;
+        }
     }
     
     public Course getCourseById(int courseId) throws SQLException {
@@ -77,6 +164,10 @@ public class AdmissionService {
         return courseDAO.getAllCourses();
     }
     
+    public Page<Course> getCoursesPage(String pageToken, int pageSize) throws SQLException {
+        return courseDAO.getCoursesPage(pageToken, pageSize);
+    }
+    
     public List<Course> getActiveCourses() throws SQLException {
         return courseDAO.getActiveCourses();
     }
@@ -86,29 +177,151 @@ public class AdmissionService {
     }
     
     // Application Management
+    // Student and course come from the DAO caches and merit is computed by calculateMeritScore,
+    // so the only database round trip is the INSERT. The unique_student_course key stands in for
+    // the duplicate check, and the foreign keys catch a student or course deleted meanwhile.
     public int submitApplication(int studentId, int courseId, int preference) throws SQLException {
-        // Check if student exists
-        Student student = studentDAO.getStudentById(studentId);
+        Application application = new Application(studentId, courseId, preference);
+        setMeritScore(application);
+        try {
+            applicationDAO.addApplication(application);
+        } catch (SQLException e) {
+            throw translateSubmissionError(e, studentId, courseId);
+        }
+        indexSubmittedApplications(Collections.singletonList(application));
+        return application.getApplicationId();
+    }
+    
+    // The single place merit is computed for new applications
+    void setMeritScore(Application application) throws SQLException {
+        Student student = studentDAO.getStudentById(application.getStudentId());
         if (student == null) {
-            throw new SQLException("Student not found with ID: " + studentId);
+            throw new SQLException("Student not found with ID: " + application.getStudentId());
         }
-        
-        // Check if course exists
-        Course course = courseDAO.getCourseById(courseId);
+        Course course = courseDAO.getCourseById(application.getCourseId());
         if (course == null) {
-            throw new SQLException("Course not found with ID: " + courseId);
+            throw new SQLException("Course not found with ID: " + application.getCourseId());
         }
-        
-        // Check if student has already applied for this course
-        if (applicationDAO.hasStudentAppliedToCourse(studentId, courseId)) {
-            throw new SQLException("Student has already applied for this course");
+        application.setMeritScore(calculateMeritScore(student, course));
+    }
+    
+    // Submits a student's whole preference list: courseIds[0] becomes preference 1, and so on.
+    // All applications are inserted in one batched transaction; if any course is invalid or
+    // already applied for, nothing is inserted. Returns the application ids in preference order.
+    public List<Integer> submitApplications(int studentId, List<Integer> courseIds) throws SQLException {
+        if (courseIds == null || courseIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one course preference is required");
+        }
+        Set<Integer> seen = new HashSet<Integer>();
+        List<Application> applications = new ArrayList<Application>(courseIds.size());
+        for (int i = 0; i < courseIds.size(); i++) {
+            Integer courseId = courseIds.get(i);
+            if (courseId == null || !seen.add(courseId)) {
+                throw new IllegalArgumentException("Invalid or repeated course in preference " + (i + 1) + ": " + courseId);
+            }
+            applications.add(new Application(studentId, courseId, i + 1));
+        }
+        for (Application application : applications) {
+            setMeritScore(application);
         }
         
-        // Create application
-        Application application = new Application(studentId, courseId, preference);
-        application.setMeritScore(calculateMeritScore(student, course));
+        DatabaseConfig.beginTransaction();
+        try {
+            int inserted = applicationDAO.addApplications(applications);
+            if (inserted != applications.size()) {
+                throw new SQLException("Only " + inserted + " of " + applications.size() + " applications were inserted");
+            }
+            DatabaseConfig.commitTransaction();
+        } catch (BatchUpdateException e) {
+            throw translateSubmissionError(e, studentId, failedCourseId(e, courseIds));
+        } catch (SQLException e) {
+            throw translateSubmissionError(e, studentId, courseIds.get(0));
+        } finally {
+            DatabaseConfig.rollbackTransaction();
+        }
+        indexSubmittedApplications(applications);
         
-        return applicationDAO.addApplication(application);
+        List<Integer> applicationIds = new ArrayList<Integer>(applications.size());
+        for (Application application : applications) {
+            applicationIds.add(application.getApplicationId());
+        }
+        return applicationIds;
+    }
+    
+    // The course of the first failed statement in the batch, so the error names the right one
+    private int failedCourseId(BatchUpdateException e, List<Integer> courseIds) {
+        int[] counts = e.getUpdateCounts();
+        if (counts != null) {
+            for (int i = 0; i < counts.length && i < courseIds.size(); i++) {
+                if (counts[i] == Statement.EXECUTE_FAILED) {
+                    return courseIds.get(i);
+                }
+            }
+            if (counts.length < courseIds.size()) {
+                return courseIds.get(counts.length);
+            }
+        }
+        return courseIds.get(0);
+    }
+    
+    // Adds committed submissions, whose merit setMeritScore already computed, to the merit index
+    // of courses that are loaded or loading. The (usually cached) student supplies the category.
+    void indexSubmittedApplications(List<Application> applications) {
+        Student student = null;
+        for (Application application : applications) {
+            if (!MERIT_INDEX.isTracked(application.getCourseId())) {
+                continue;
+            }
+            try {
+                if (student == null || student.getStudentId() != application.getStudentId()) {
+                    student = studentDAO.getStudentById(application.getStudentId());
+                }
+                if (student == null) {
+                    MERIT_INDEX.invalidateCourse(application.getCourseId());
+                    continue;
+                }
+                MERIT_INDEX.add(application.getCourseId(), application.getApplicationId(),
+                                application.getStudentId(), application.getMeritScore(), student.getCategory());
+            } catch (SQLException e) {
+                // The submission is committed; let the course reload rather than fail the caller
+                MERIT_INDEX.invalidateCourse(application.getCourseId());
+            }
+        }
+    }
+    
+    // Maps constraint violations from the applications insert back to the messages the
+    // explicit pre-checks used to produce
+    SQLException translateSubmissionError(SQLException e, int studentId, int courseId) {
+        if (e.getErrorCode() == MYSQL_DUPLICATE_KEY) {
+            return new SQLException("Student has already applied for this course", e.getSQLState(), e.getErrorCode(), e);
+        }
+        if (e.getErrorCode() == MYSQL_NO_REFERENCED_ROW) {
+            String message = e.getMessage() == null ? "" : e.getMessage();
+            boolean courseMissing;
+            if (message.contains(FK_APPLICATIONS_COURSE)) {
+                courseMissing = true;
+            } else if (message.contains(FK_APPLICATIONS_STUDENT)) {
+                courseMissing = false;
+            } else {
+                // Schema without the named constraints: ask the database which row is gone
+                courseMissing = !courseExists(courseId);
+            }
+            if (courseMissing) {
+                return new SQLException("Course not found with ID: " + courseId, e.getSQLState(), e.getErrorCode(), e);
+            }
+            return new SQLException("Student not found with ID: " + studentId, e.getSQLState(), e.getErrorCode(), e);
+        }
+        return e;
+    }
+    
+    // Primary key lookup past the cache, which may still hold a course deleted elsewhere
+    private boolean courseExists(int courseId) {
+        CourseDAO.getCache().invalidate(courseId);
+        try {
+            return courseDAO.getCourseById(courseId) != null;
+        } catch (SQLException e) {
+            return true;
+        }
     }
     
     public List<Application> getApplicationsByStudent(int studentId) throws SQLException {
@@ -123,6 +336,10 @@ public class AdmissionService {
         return applicationDAO.getAllApplications();
     }
     
+    public Page<Application> getApplicationsPage(String pageToken, int pageSize) throws SQLException {
+        return applicationDAO.getApplicationsPage(pageToken, pageSize);
+    }
+    
     // Merit Calculation
     public double calculateMeritScore(Student student, Course course) {
         double baseScore = student.getGrade12Percentage();
@@ -146,182 +363,433 @@ public class AdmissionService {
     }
     
     // Admission Process
-    public void processAdmissions() throws SQLException {
+    public AdmissionRunReport processAdmissions() throws SQLException {
+        long start = System.currentTimeMillis();
+        AdmissionRunReport report = new AdmissionRunReport();
         List<Course> courses = courseDAO.getActiveCourses();
         
         for (Course course : courses) {
-            processAdmissionForCourse(course);
+            report.addCourseResult(processAdmissionForCourse(course));
         }
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+        return report;
     }
     
-    public void processAdmissionForCourse(Course course) throws SQLException {
-        List<Application> applications = applicationDAO.getApplicationsByCourseId(course.getCourseId());
-        
-        // Separate applications by category
-        List<Application> generalApps = new ArrayList<Application>();
-        List<Application> obcApps = new ArrayList<Application>();
-        List<Application> scApps = new ArrayList<Application>();
-        List<Application> stApps = new ArrayList<Application>();
+    // Courses are independent seat pools, so each one is allocated as its own task (own pooled
+    // connection and transaction) on a ForkJoinPool. Parallelism is capped at the pool size.
+    public AdmissionRunReport processAdmissionsParallel(int parallelism) throws SQLException {
+        int workers = Math.max(1, Math.min(parallelism, DatabaseConfig.getMaxPoolSize()));
+        ExecutorService executor = new ForkJoinPool(workers);
+        try {
+            return processAdmissionsParallel(executor);
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    // Runs on a caller-supplied executor (e.g. virtual threads). At most getMaxPoolSize() courses
+    // run at once whatever the executor's size; the rest wait for a permit instead of timing out
+    // in the connection pool. A failed course is rolled back and recorded in the report; the
+    // other courses still run.
+    public AdmissionRunReport processAdmissionsParallel(ExecutorService executor) throws SQLException {
+        long start = System.currentTimeMillis();
+        List<Course> courses = courseDAO.getActiveCourses();
+        List<Future<CourseAdmissionResult>> futures = new ArrayList<Future<CourseAdmissionResult>>(courses.size());
+        final Semaphore permits = new Semaphore(DatabaseConfig.getMaxPoolSize());
         
-        for (Application app : applications) {
-            Student student = studentDAO.getStudentById(app.getStudentId());
-            if (student != null) {
-                switch (student.getCategory().toUpperCase()) {
-                    case "GENERAL":
-                        generalApps.add(app);
-                        break;
-                    case "OBC":
-                        obcApps.add(app);
-                        break;
-                    case "SC":
-                        scApps.add(app);
-                        break;
-                    case "ST":
-                        stApps.add(app);
-                        break;
+        for (final Course course : courses) {
+            futures.add(executor.submit(new Callable<CourseAdmissionResult>() {
+                public CourseAdmissionResult call() {
+                    try {
+                        permits.acquire();
+                        try {
+                            return processAdmissionForCourse(course);
+                        } finally {
+                            permits.release();
+                        }
+                    } catch (Exception e) {
+                        if (e instanceof InterruptedException) {
+                            Thread.currentThread().interrupt();
+                        }
+                        CourseAdmissionResult failed = new CourseAdmissionResult(course.getCourseId(), 
+                                                                                 course.getCourseName());
+                        failed.setError(e.getMessage());
+                        return failed;
+                    }
                 }
-            }
+            }));
         }
         
-        // Sort applications by merit score (descending)
-        Comparator<Application> meritComparator = new Comparator<Application>() {
-            public int compare(Application a1, Application a2) {
-                return Double.compare(a2.getMeritScore(), a1.getMeritScore());
+        AdmissionRunReport report = new AdmissionRunReport();
+        for (Future<CourseAdmissionResult> future : futures) {
+            try {
+                report.addCourseResult(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for admission workers", e);
+            } catch (ExecutionException e) {
+                throw new SQLException("Admission worker failed: " + e.getCause().getMessage(), e.getCause());
             }
-        };
-        
-        Collections.sort(generalApps, meritComparator);
-        Collections.sort(obcApps, meritComparator);
-        Collections.sort(scApps, meritComparator);
-        Collections.sort(stApps, meritComparator);
-        
-        // Process admissions based on cutoffs
-        processApplicationsByCategory(generalApps, course.getGeneralCutoff(), "GENERAL");
-        processApplicationsByCategory(obcApps, course.getObcCutoff(), "OBC");
-        processApplicationsByCategory(scApps, course.getScCutoff(), "SC");
-        processApplicationsByCategory(stApps, course.getStCutoff(), "ST");
+        }
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+        return report;
     }
     
-    private void processApplicationsByCategory(List<Application> applications, 
-                                             double cutoff, String category) throws SQLException {
+    // Runs the whole allocation for a course in one transaction: either every decision and
+    // the seat reservation are committed together, or nothing is.
+    public CourseAdmissionResult processAdmissionForCourse(Course course) throws SQLException {
+        long start = System.currentTimeMillis();
+        CourseAdmissionResult result = new CourseAdmissionResult(course.getCourseId(), course.getCourseName());
+        DatabaseConfig.beginTransaction(admissionIsolationLevel);
+        boolean committed = false;
+        try {
+            // Lock the course row so concurrent runs for the same course cannot interleave
+            Course current = courseDAO.getCourseByIdForUpdate(course.getCourseId());
+            if (current == null) {
+                throw new SQLException("Course not found with ID: " + course.getCourseId());
+            }
+            
+            // One joined read: applications come back grouped by category and sorted by merit
+            Map<String, List<Application>> applicationsByCategory = 
+                applicationDAO.getApplicationsForAllocation(course.getCourseId());
+            List<Application> generalApps = categoryApplications(applicationsByCategory, "GENERAL");
+            List<Application> obcApps = categoryApplications(applicationsByCategory, "OBC");
+            List<Application> scApps = categoryApplications(applicationsByCategory, "SC");
+            List<Application> stApps = categoryApplications(applicationsByCategory, "ST");
+            
+            // Reserve the seats this run needs with one conditional UPDATE; the grant is the seat
+            // ledger for the rest of the run. Already approved applications keep their seats.
+            int eligible = countEligible(generalApps, current.getGeneralCutoff()) 
+                         + countEligible(obcApps, current.getObcCutoff()) 
+                         + countEligible(scApps, current.getScCutoff()) 
+                         + countEligible(stApps, current.getStCutoff());
+            int granted = courseDAO.reserveSeats(course.getCourseId(), eligible);
+            int availableSeats = granted;
+            List<ApplicationDecision> decisions = new ArrayList<ApplicationDecision>(statusBatchSize);
+            
+            // Process admissions based on the cutoffs of the row locked above, not the caller's copy
+            availableSeats = processApplicationsByCategory(generalApps, current.getGeneralCutoff(), "GENERAL", 
+                                                           availableSeats, decisions, result);
+            availableSeats = processApplicationsByCategory(obcApps, current.getObcCutoff(), "OBC", 
+                                                           availableSeats, decisions, result);
+            availableSeats = processApplicationsByCategory(scApps, current.getScCutoff(), "SC", 
+                                                           availableSeats, decisions, result);
+            availableSeats = processApplicationsByCategory(stApps, current.getStCutoff(), "ST", 
+                                                           availableSeats, decisions, result);
+            flushDecisions(decisions);
+            
+            DatabaseConfig.commitTransaction();
+            committed = true;
+            int seatsRemaining = current.getAvailableSeats() - granted;
+            course.setAvailableSeats(seatsRemaining);
+            result.setSeatsRemaining(seatsRemaining);
+            result.setElapsedMillis(System.currentTimeMillis() - start);
+            return result;
+        } finally {
+            if (!committed) {
+                DatabaseConfig.rollbackTransaction();
+                System.err.println("Admission run for course " + course.getCourseId() + 
+                                   " rolled back; no decisions were saved.");
+            }
+        }
+    }
+    
+    private int countEligible(List<Application> applications, double cutoff) {
+        int count = 0;
         for (Application app : applications) {
+            if (!app.isApproved() && app.getMeritScore() >= cutoff) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    private List<Application> categoryApplications(Map<String, List<Application>> applicationsByCategory, 
+                                                   String category) {
+        List<Application> applications = applicationsByCategory.get(category);
+        return applications != null ? applications : Collections.<Application>emptyList();
+    }
+    
+    // Returns the seats still available after this category has been processed.
+    // Decisions are collected in the given buffer and flushed every statusBatchSize entries.
+    private int processApplicationsByCategory(List<Application> applications, 
+                                              double cutoff, String category, int availableSeats,
+                                              List<ApplicationDecision> decisions,
+                                              CourseAdmissionResult result) throws SQLException {
+        for (Application app : applications) {
+            if (app.isApproved()) {
+                // Already holds a seat from an earlier run or a manual approval
+                continue;
+            }
             if (app.getMeritScore() >= cutoff) {
                 // Check if seats are available
-                Course course = courseDAO.getCourseById(app.getCourseId());
-                if (course.getAvailableSeats() > 0) {
+                if (availableSeats > 0) {
                     // Approve application
-                    applicationDAO.updateApplicationStatus(app.getApplicationId(), 
-                                                         "APPROVED", 
-                                                         "Approved based on merit and cutoff");
-                    
-                    // Update available seats
-                    course.setAvailableSeats(course.getAvailableSeats() - 1);
-                    courseDAO.updateCourse(course);
+                    decisions.add(new ApplicationDecision(app.getApplicationId(), 
+                                                          "APPROVED", 
+                                                          "Approved based on merit and cutoff"));
+                    availableSeats--;
                 } else {
                     // Waitlist application
-                    applicationDAO.updateApplicationStatus(app.getApplicationId(), 
-                                                         "WAITLISTED", 
-                                                         "Waitlisted - no seats available");
+                    decisions.add(new ApplicationDecision(app.getApplicationId(), 
+                                                          "WAITLISTED", 
+                                                          "Waitlisted - no seats available"));
                 }
             } else {
                 // Reject application
-                applicationDAO.updateApplicationStatus(app.getApplicationId(), 
-                                                     "REJECTED", 
-                                                     "Rejected - below cutoff (" + cutoff + "%)");
+                decisions.add(new ApplicationDecision(app.getApplicationId(), 
+                                                      "REJECTED", 
+                                                      "Rejected - below cutoff (" + cutoff + "%)"));
+            }
+            result.recordDecision(decisions.get(decisions.size() - 1).getStatus());
+            
+            if (decisions.size() >= statusBatchSize) {
+                flushDecisions(decisions);
             }
         }
+        return availableSeats;
+    }
+    
+    private void flushDecisions(List<ApplicationDecision> decisions) throws SQLException {
+        if (!decisions.isEmpty()) {
+            applicationDAO.updateApplicationStatuses(decisions, statusBatchSize);
+            decisions.clear();
+        }
     }
     
     // Merit List Generation
+    // The query already returns merit order (ties by application id), so no re-sort here
     public List<Application> generateMeritList(int courseId) throws SQLException {
-        List<Application> applications = applicationDAO.getApplicationsByCourseId(courseId);
-        
-        // Sort by merit score (descending)
-        Collections.sort(applications, new Comparator<Application>() {
-            public int compare(Application a1, Application a2) {
-                return Double.compare(a2.getMeritScore(), a1.getMeritScore());
-            }
-        });
-        
-        return applications;
+        return applicationDAO.getApplicationsByCourseId(courseId);
+    }
+    
+    public MeritIndex getMeritIndex() {
+        return MERIT_INDEX;
+    }
+    
+    // The k best non-withdrawn applications for the course (category null for all), as packed
+    // MeritIndex keys; served from memory once the course is loaded
+    public long[] getTopMerit(int courseId, String category, int k) throws SQLException {
+        return MERIT_INDEX.topK(courseId, category, k);
+    }
+    
+    // Overall and category rank of the student's application in the course, or null if the
+    // student has not applied (or withdrew). Ties on merit are ordered by application id, i.e.
+    // earlier applications first; the competition ranks give tied students the same rank.
+    public MeritRank getMeritRank(int studentId, int courseId) throws SQLException {
+        return MERIT_INDEX.rank(courseId, studentId);
+    }
+    
+    public long[] getMeritRange(int courseId, String category, double minMerit, double maxMerit) throws SQLException {
+        return MERIT_INDEX.range(courseId, category, minMerit, maxMerit);
     }
     
     public List<Application> generateAdmissionList() throws SQLException {
-        List<Application> approvedApplications = applicationDAO.getApplicationsByStatus("APPROVED");
-        
-        // Sort by merit score (descending)
-        Collections.sort(approvedApplications, new Comparator<Application>() {
-            public int compare(Application a1, Application a2) {
-                return Double.compare(a2.getMeritScore(), a1.getMeritScore());
+        final List<Application> approvedApplications = new ArrayList<Application>();
+        streamAdmissionList(new RowHandler<ApplicationDetail>() {
+            public void handle(ApplicationDetail application) {
+                approvedApplications.add(application);
             }
         });
-        
         return approvedApplications;
     }
     
+    // Approved applications best merit first, ordered by the query and handed over one row at a time
+    public void streamAdmissionList(RowHandler<ApplicationDetail> handler) throws SQLException {
+        applicationDAO.streamApplicationDetails(admissionListFilter(), handler);
+    }
+    
+    private ApplicationDetailFilter admissionListFilter() {
+        ApplicationDetailFilter filter = new ApplicationDetailFilter();
+        filter.setStatus("APPROVED");
+        filter.setMeritOrder(true);
+        return filter;
+    }
+    
     // File Generation
-    public void generateAdmissionListCSV(String filename) throws SQLException, IOException {
-        List<Application> admissionList = generateAdmissionList();
-        
-        FileWriter writer = new FileWriter(filename);
+    // Exports stream a single joined query straight into a buffered CSV writer. A filename
+    // ending in ".gz" is written gzip-compressed.
+    public ExportReport generateAdmissionListCSV(String filename) throws SQLException, IOException {
+        return generateAdmissionListCSV(filename, filename.endsWith(".gz"));
+    }
+    
+    public ExportReport generateAdmissionListCSV(String filename, boolean gzip) throws SQLException, IOException {
+        long start = System.currentTimeMillis();
+        final CsvWriter writer = new CsvWriter(filename, gzip);
+        final long[] dataRows = { 0 };
         
         try {
             // Write header
-            writer.append("Application ID,Student ID,Student Name,Course ID,Course Name,Merit Score,Status,Application Date\n");
+            writer.writeRow("Application ID", "Student ID", "Student Name", "Course ID", "Course Name", 
+                            "Merit Score", "Status", "Application Date");
             
             // Write data
-            for (Application app : admissionList) {
-                Student student = studentDAO.getStudentById(app.getStudentId());
-                Course course = courseDAO.getCourseById(app.getCourseId());
-                
-                writer.append(String.valueOf(app.getApplicationId())).append(",");
-                writer.append(String.valueOf(app.getStudentId())).append(",");
-                writer.append(student.getFullName()).append(",");
-                writer.append(String.valueOf(app.getCourseId())).append(",");
-                writer.append(course.getCourseName()).append(",");
-                writer.append(String.valueOf(app.getMeritScore())).append(",");
-                writer.append(app.getStatus()).append(",");
-                writer.append(app.getApplicationDate().toString()).append("\n");
-            }
+            streamAdmissionList(new RowHandler<ApplicationDetail>() {
+                public void handle(ApplicationDetail app) {
+                    try {
+                        writer.writeRow(app.getApplicationId(), app.getStudentId(), app.getStudentName(),
+                                        app.getCourseId(), app.getCourseName(), app.getMeritScore(),
+                                        app.getStatus(), app.getApplicationDate());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    dataRows[0]++;
+                }
+            });
             
             writer.flush();
-            System.out.println("Admission list exported to: " + filename);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         } finally {
             writer.close();
         }
+        
+        ExportReport report = new ExportReport(filename, dataRows[0], System.currentTimeMillis() - start);
+        System.out.println("Admission list exported to: " + report);
+        return report;
+    }
+    
+    public ExportReport generateMeritListCSV(int courseId, String filename) throws SQLException, IOException {
+        return generateMeritListCSV(courseId, filename, filename.endsWith(".gz"));
     }
     
-    public void generateMeritListCSV(int courseId, String filename) throws SQLException, IOException {
-        List<Application> meritList = generateMeritList(courseId);
+    public ExportReport generateMeritListCSV(int courseId, String filename, boolean gzip) 
+            throws SQLException, IOException {
+        long start = System.currentTimeMillis();
         Course course = courseDAO.getCourseById(courseId);
+        if (course == null) {
+            throw new SQLException("Course not found with ID: " + courseId);
+        }
         
-        FileWriter writer = new FileWriter(filename);
+        final CsvWriter writer = new CsvWriter(filename, gzip);
+        final int[] rank = { 1 };
         
         try {
             // Write header
-            writer.append("Merit List for Course: " + course.getCourseName() + " (" + course.getCourseCode() + ")\n");
-            writer.append("Rank,Student ID,Student Name,Category,Merit Score,Status\n");
+            writer.writeRow("Merit List for Course: " + course.getCourseName() + " (" + course.getCourseCode() + ")");
+            writer.writeRow("Rank", "Student ID", "Student Name", "Category", "Merit Score", "Status");
             
             // Write data
-            int rank = 1;
-            for (Application app : meritList) {
-                Student student = studentDAO.getStudentById(app.getStudentId());
-                
-                writer.append(String.valueOf(rank)).append(",");
-                writer.append(String.valueOf(app.getStudentId())).append(",");
-                writer.append(student.getFullName()).append(",");
-                writer.append(student.getCategory()).append(",");
-                writer.append(String.valueOf(app.getMeritScore())).append(",");
-                writer.append(app.getStatus()).append("\n");
-                
-                rank++;
-            }
+            ApplicationDetailFilter filter = new ApplicationDetailFilter();
+            filter.setCourseId(courseId);
+            filter.setMeritOrder(true);
+            applicationDAO.streamApplicationDetails(filter, new RowHandler<ApplicationDetail>() {
+                public void handle(ApplicationDetail app) {
+                    try {
+                        writer.writeRow(rank[0], app.getStudentId(), app.getStudentName(),
+                                        app.getStudentCategory(), app.getMeritScore(), app.getStatus());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    
+                    rank[0]++;
+                }
+            });
             
             writer.flush();
-            System.out.println("Merit list exported to: " + filename);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         } finally {
             writer.close();
         }
+        
+        ExportReport report = new ExportReport(filename, rank[0] - 1, System.currentTimeMillis() - start);
+        System.out.println("Merit list exported to: " + report);
+        return report;
+    }
+    
+    // Writes one merit list per active course into outputDirectory, with each course's export
+    // running as its own task on a bounded worker pool. With zip set, the files are packed
+    // into merit_lists.zip afterwards and the individual files removed.
+    public List<ExportReport> exportAllMeritLists(String outputDirectory, int parallelism, boolean zip) 
+            throws SQLException, IOException {
+        long start = System.currentTimeMillis();
+        final File directory = new File(outputDirectory);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create output directory: " + outputDirectory);
+        }
+        
+        List<Course> courses = courseDAO.getActiveCourses();
+        int workers = Math.max(1, Math.min(parallelism, DatabaseConfig.getMaxPoolSize()));
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        List<Future<ExportReport>> futures = new ArrayList<Future<ExportReport>>(courses.size());
+        
+        try {
+            for (final Course course : courses) {
+                futures.add(executor.submit(new Callable<ExportReport>() {
+                    public ExportReport call() throws Exception {
+                        // The id keeps names unique when two codes sanitize alike ("CS/101", "CS_101")
+                        File file = new File(directory, "merit_" + course.getCourseId() + "_" +
+                                             safeFileName(course.getCourseCode()) + ".csv");
+                        return generateMeritListCSV(course.getCourseId(), file.getPath(), false);
+                    }
+                }));
+            }
+            
+            List<ExportReport> reports = new ArrayList<ExportReport>(futures.size());
+            Throwable failure = null;
+            for (Future<ExportReport> future : futures) {
+                try {
+                    reports.add(future.get());
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for merit list exports", e);
+                }
+            }
+            if (failure instanceof SQLException) {
+                throw (SQLException) failure;
+            } else if (failure instanceof IOException) {
+                throw (IOException) failure;
+            } else if (failure != null) {
+                throw new IOException("Merit list export failed: " + failure.getMessage(), failure);
+            }
+            
+            if (zip) {
+                zipAndRemove(reports, new File(directory, "merit_lists.zip"));
+            }
+            System.out.println("Exported " + reports.size() + " merit lists in " + 
+                               (System.currentTimeMillis() - start) + " ms");
+            return reports;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    private void zipAndRemove(List<ExportReport> reports, File zipFile) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(zipFile)));
+        byte[] buffer = new byte[64 * 1024];
+        
+        try {
+            for (ExportReport report : reports) {
+                File file = new File(report.getFilename());
+                zip.putNextEntry(new ZipEntry(file.getName()));
+                FileInputStream in = new FileInputStream(file);
+                try {
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        zip.write(buffer, 0, read);
+                    }
+                } finally {
+                    in.close();
+                }
+                zip.closeEntry();
+            }
+        } finally {
+            zip.close();
+        }
+        
+        for (ExportReport report : reports) {
+            new File(report.getFilename()).delete();
+        }
+        System.out.println("Merit lists packed into: " + zipFile.getPath());
+    }
+    
+    private static String safeFileName(String value) {
+        return value.replaceAll("[^A-Za-z0-9_-]", "_");
     }
     
     // Additional utility methods
@@ -337,12 +805,88 @@ public class AdmissionService {
         return applicationDAO.getApplicationCountByCourse(courseId);
     }
     
+    // Elements are ApplicationDetail instances; getApplicationDetails() returns them typed
     public List<Application> getApplicationsWithDetails() throws SQLException {
         return applicationDAO.getApplicationsWithDetails();
     }
     
+    public List<ApplicationDetail> getApplicationDetails() throws SQLException {
+        return applicationDAO.getApplicationDetails(new ApplicationDetailFilter());
+    }
+    
+    public List<ApplicationDetail> getApplicationDetails(ApplicationDetailFilter filter) throws SQLException {
+        return applicationDAO.getApplicationDetails(filter);
+    }
+    
+    public void streamApplicationDetails(ApplicationDetailFilter filter, 
+                                         RowHandler<ApplicationDetail> handler) throws SQLException {
+        applicationDAO.streamApplicationDetails(filter, handler);
+    }
+    
+    public List<ApplicationDetail> getApplicationDetailsByStudent(int studentId) throws SQLException {
+        ApplicationDetailFilter filter = new ApplicationDetailFilter();
+        filter.setStudentId(studentId);
+        return applicationDAO.getApplicationDetails(filter);
+    }
+    
+    public List<ApplicationDetail> getApplicationDetailsByCourse(int courseId) throws SQLException {
+        ApplicationDetailFilter filter = new ApplicationDetailFilter();
+        filter.setCourseId(courseId);
+        filter.setMeritOrder(true);
+        return applicationDAO.getApplicationDetails(filter);
+    }
+    
+    // Seats are owned by the application layer: approving reserves a seat with the same
+    // conditional UPDATE the admission run uses, and un-approving releases it.
     public boolean updateApplicationStatus(int applicationId, String status, String remarks) throws SQLException {
-        return applicationDAO.updateApplicationStatus(applicationId, status, remarks);
+        DatabaseConfig.beginTransaction();
+        boolean committed = false;
+        try {
+            Application application = applicationDAO.getApplicationByIdForUpdate(applicationId);
+            if (application == null) {
+                return false;
+            }
+            
+            boolean approving = "APPROVED".equals(status) && !application.isApproved();
+            boolean unapproving = application.isApproved() && !"APPROVED".equals(status);
+            if (approving && courseDAO.reserveSeats(application.getCourseId(), 1) == 0) {
+                throw new SQLException("No seats available for course ID: " + application.getCourseId());
+            }
+            if (unapproving) {
+                courseDAO.releaseSeats(application.getCourseId(), 1);
+            }
+            
+            boolean updated = applicationDAO.updateApplicationStatus(applicationId, status, remarks);
+            DatabaseConfig.commitTransaction();
+            committed = true;
+            if (updated) {
+                updateMeritIndex(application, status);
+            }
+            return updated;
+        } finally {
+            if (!committed) {
+                DatabaseConfig.rollbackTransaction();
+            }
+        }
+    }
+    
+    // Withdrawn applications leave the merit lists; reinstated ones come back
+    private void updateMeritIndex(Application application, String newStatus) {
+        boolean wasWithdrawn = "WITHDRAWN".equals(application.getStatus());
+        boolean withdrawn = "WITHDRAWN".equals(newStatus);
+        if (withdrawn && !wasWithdrawn) {
+            MERIT_INDEX.remove(application.getCourseId(), application.getApplicationId());
+        } else if (wasWithdrawn && !withdrawn && MERIT_INDEX.isTracked(application.getCourseId())) {
+            try {
+                Student student = studentDAO.getStudentById(application.getStudentId());
+                if (student != null) {
+                    MERIT_INDEX.add(application.getCourseId(), application.getApplicationId(),
+                                    application.getStudentId(), application.getMeritScore(), student.getCategory());
+                }
+            } catch (SQLException e) {
+                MERIT_INDEX.invalidateCourse(application.getCourseId());
+            }
+        }
     }
     
     public Application getApplicationById(int applicationId) throws SQLException {
@@ -358,19 +902,46 @@ public class AdmissionService {
     }
     
     public boolean deleteApplication(int applicationId) throws SQLException {
-        return applicationDAO.deleteApplication(applicationId);
+        DatabaseConfig.beginTransaction();
+        boolean committed = false;
+        try {
+            Application application = applicationDAO.getApplicationByIdForUpdate(applicationId);
+            if (application == null) {
+                return false;
+            }
+            
+            boolean deleted = applicationDAO.deleteApplication(applicationId);
+            if (deleted && application.isApproved()) {
+                courseDAO.releaseSeats(application.getCourseId(), 1);
+            }
+            DatabaseConfig.commitTransaction();
+            committed = true;
+            if (deleted) {
+                MERIT_INDEX.remove(application.getCourseId(), applicationId);
+            }
+            return deleted;
+        } finally {
+            if (!committed) {
+                DatabaseConfig.rollbackTransaction();
+            }
+        }
     }
     
     public boolean deleteStudent(int studentId) throws SQLException {
-        return studentDAO.deleteStudent(studentId);
+        boolean deleted = studentDAO.deleteStudent(studentId);
+        // Applications go with the student (ON DELETE CASCADE) in whichever courses they were
+        MERIT_INDEX.clear();
+        return deleted;
     }
     
     public boolean deleteCourse(int courseId) throws SQLException {
-        return courseDAO.deleteCourse(courseId);
+        boolean deleted = courseDAO.deleteCourse(courseId);
+        MERIT_INDEX.invalidateCourse(courseId);
+        return deleted;
     }
     
-    public boolean updateAvailableSeats(int courseId, int newAvailableSeats) throws SQLException {
-        return courseDAO.updateAvailableSeats(courseId, newAvailableSeats);
+    public boolean adjustAvailableSeats(int courseId, int delta) throws SQLException {
+        return courseDAO.adjustAvailableSeats(courseId, delta);
     }
     
     // Validation methods
@@ -413,45 +984,57 @@ public class AdmissionService {
     }
     
     // Statistical methods
+    // One aggregate query for everything on the statistics screen
+    public AdmissionStatistics getStatistics() throws SQLException {
+        return statisticsDAO.getAdmissionStatistics();
+    }
+    
+    public EntityCache<Course> getCourseCache() {
+        return CourseDAO.getCache();
+    }
+    
+    public EntityCache<Student> getStudentCache() {
+        return StudentDAO.getCache();
+    }
+    
+    // Bloom filter counters for the email / course code existence checks
+    public String getExistenceFilterStats() {
+        return StudentDAO.getEmailFilterStats() + "\n" + CourseDAO.getCodeFilterStats();
+    }
+    
+    public double getEmailCheckFalsePositiveRate() {
+        return StudentDAO.getEmailFilterFalsePositiveRate();
+    }
+    
+    public double getCourseCodeCheckFalsePositiveRate() {
+        return CourseDAO.getCodeFilterFalsePositiveRate();
+    }
+    
     public double getAverageGrade12Percentage() throws SQLException {
-        List<Student> students = studentDAO.getAllStudents();
-        if (students.isEmpty()) {
-            return 0.0;
-        }
-        
-        double sum = 0.0;
-        for (Student student : students) {
-            sum += student.getGrade12Percentage();
-        }
-        return sum / students.size();
+        return getStatistics().getAverageGrade12Percentage();
     }
     
     public int getTotalSeatsAvailable() throws SQLException {
-        List<Course> courses = courseDAO.getActiveCourses();
-        int totalSeats = 0;
-        for (Course course : courses) {
-            totalSeats += course.getAvailableSeats();
-        }
-        return totalSeats;
+        return getStatistics().getTotalSeatsAvailable();
     }
     
     public int getTotalApplications() throws SQLException {
-        return applicationDAO.getAllApplications().size();
+        return getStatistics().getTotalApplications();
     }
     
     public int getApprovedApplicationsCount() throws SQLException {
-        return applicationDAO.getApplicationsByStatus("APPROVED").size();
+        return getStatistics().getApprovedApplications();
     }
     
     public int getRejectedApplicationsCount() throws SQLException {
-        return applicationDAO.getApplicationsByStatus("REJECTED").size();
+        return getStatistics().getRejectedApplications();
     }
     
     public int getWaitlistedApplicationsCount() throws SQLException {
-        return applicationDAO.getApplicationsByStatus("WAITLISTED").size();
+        return getStatistics().getWaitlistedApplications();
     }
     
     public int getPendingApplicationsCount() throws SQLException {
-        return applicationDAO.getApplicationsByStatus("PENDING").size();
+        return getStatistics().getPendingApplications();
     }
 }
\ No newline at end of file
@@ -0,0 +1,209 @@
+package com.college.admission.service;
+
+import com.college.admission.model.Application;
+import com.college.admission.model.ApplicationDetail;
+import com.college.admission.model.Course;
+import com.college.admission.model.Student;
+import com.college.admission.util.DatabaseConfig;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Non-blocking facade over AdmissionService. Each call runs on its own virtual thread when
+// the JVM has them (Java 21+), and a semaphore sized to the connection pool bounds how many
+// touch the database at once, so thousands of in-flight requests wait cheaply on it instead
+// of timing out in the pool. Otherwise calls run on a fixed pool of that many platform
+// threads, which is the bound by itself.
+public class AsyncAdmissionService {
+
+    private final AdmissionService admissionService;
+    private final ExecutorService executor;
+    private final Semaphore permits; // null on the platform thread pool
+    private final int maxConcurrency;
+    private final boolean virtualThreads;
+
+    public AsyncAdmissionService(AdmissionService admissionService) {
+        this(admissionService, DatabaseConfig.getMaxPoolSize());
+    }
+
+    public AsyncAdmissionService(AdmissionService admissionService, int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Max concurrency must be greater than 0");
+        }
+        this.admissionService = admissionService;
+        this.maxConcurrency = maxConcurrency;
+
+        ExecutorService virtual = newVirtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        if (virtual != null) {
+            this.executor = virtual;
+            this.permits = new Semaphore(maxConcurrency, true);
+            System.out.println("Async admission service: virtual threads, at most " + maxConcurrency +
+                               " concurrent database calls");
+        } else {
+            this.executor = newPlatformThreadExecutor(maxConcurrency);
+            this.permits = null;
+            System.out.println("Async admission service: " + maxConcurrency +
+                               " platform threads (virtual threads unavailable)");
+        }
+    }
+
+    public boolean isUsingVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public int getAvailablePermits() {
+        if (permits != null) {
+            return permits.availablePermits();
+        }
+        return maxConcurrency - ((ThreadPoolExecutor) executor).getActiveCount();
+    }
+
+    // Submission
+    public CompletableFuture<Integer> submitApplication(final int studentId, final int courseId,
+                                                        final int preference) {
+        return supply(new Callable<Integer>() {
+            public Integer call() throws Exception {
+                return admissionService.submitApplication(studentId, courseId, preference);
+            }
+        });
+    }
+
+    public CompletableFuture<List<Integer>> submitApplications(final int studentId, final List<Integer> courseIds) {
+        return supply(new Callable<List<Integer>>() {
+            public List<Integer> call() throws Exception {
+                return admissionService.submitApplications(studentId, courseIds);
+            }
+        });
+    }
+
+    public CompletableFuture<Integer> registerStudent(final Student student) {
+        return supply(new Callable<Integer>() {
+            public Integer call() throws Exception {
+                return admissionService.registerStudent(student);
+            }
+        });
+    }
+
+    // Lookups
+    public CompletableFuture<Student> getStudentById(final int studentId) {
+        return supply(new Callable<Student>() {
+            public Student call() throws Exception {
+                return admissionService.getStudentById(studentId);
+            }
+        });
+    }
+
+    public CompletableFuture<Course> getCourseById(final int courseId) {
+        return supply(new Callable<Course>() {
+            public Course call() throws Exception {
+                return admissionService.getCourseById(courseId);
+            }
+        });
+    }
+
+    public CompletableFuture<Application> getApplicationById(final int applicationId) {
+        return supply(new Callable<Application>() {
+            public Application call() throws Exception {
+                return admissionService.getApplicationById(applicationId);
+            }
+        });
+    }
+
+    public CompletableFuture<List<Application>> getApplicationsByStudent(final int studentId) {
+        return supply(new Callable<List<Application>>() {
+            public List<Application> call() throws Exception {
+                return admissionService.getApplicationsByStudent(studentId);
+            }
+        });
+    }
+
+    public CompletableFuture<List<ApplicationDetail>> getApplicationDetailsByStudent(final int studentId) {
+        return supply(new Callable<List<ApplicationDetail>>() {
+            public List<ApplicationDetail> call() throws Exception {
+                return admissionService.getApplicationDetailsByStudent(studentId);
+            }
+        });
+    }
+
+    // Status updates
+    public CompletableFuture<Boolean> updateApplicationStatus(final int applicationId, final String status,
+                                                              final String remarks) {
+        return supply(new Callable<Boolean>() {
+            public Boolean call() throws Exception {
+                return admissionService.updateApplicationStatus(applicationId, status, remarks);
+            }
+        });
+    }
+
+    // Stops accepting work and waits for in-flight calls to finish
+    public void shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(timeout, unit)) {
+            executor.shutdownNow();
+        }
+    }
+
+    private <T> CompletableFuture<T> supply(final Callable<T> task) {
+        final CompletableFuture<T> future = new CompletableFuture<T>();
+        try {
+            executor.execute(new Runnable() {
+                public void run() {
+                    if (permits != null) {
+                        try {
+                            permits.acquire();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            future.completeExceptionally(e);
+                            return;
+                        }
+                    }
+                    try {
+                        future.complete(task.call());
+                    } catch (Throwable t) {
+                        future.completeExceptionally(t);
+                    } finally {
+                        if (permits != null) {
+                            permits.release();
+                        }
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() looked up reflectively so the code still
+    // compiles and runs on older JDKs; returns null when virtual threads are unavailable
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService newPlatformThreadExecutor(int threads) {
+        final AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "async-admission-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+}
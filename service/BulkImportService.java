@@ -0,0 +1,474 @@
+package com.college.admission.service;
+
+import com.college.admission.dao.CourseDAO;
+import com.college.admission.dao.StudentDAO;
+import com.college.admission.model.Course;
+import com.college.admission.model.Student;
+import com.college.admission.util.CsvReader;
+import com.college.admission.util.DatabaseConfig;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Bulk loading from CSV files. Student files are read in chunks: each chunk is parsed and validated
+// in parallel, de-duplicated in memory and against the database, then inserted with JDBC
+// batching in one transaction.
+public class BulkImportService {
+    
+    private static final int DEFAULT_CHUNK_SIZE = 10000;
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+    private static final int DEFAULT_COURSE_DURATION = 4; // courses.duration DEFAULT
+    
+    private StudentDAO studentDAO;
+    private CourseDAO courseDAO;
+    private AdmissionService admissionService;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    
+    public BulkImportService(AdmissionService admissionService) {
+        this.studentDAO = new StudentDAO();
+        this.courseDAO = new CourseDAO();
+        this.admissionService = admissionService;
+    }
+    
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be greater than 0");
+        }
+        this.chunkSize = chunkSize;
+    }
+    
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be greater than 0");
+        }
+        this.batchSize = batchSize;
+    }
+    
+    // Expects a header row naming the columns: first_name, last_name, email, grade12_percentage
+    // and category are required; phone, date_of_birth (yyyy-MM-dd) and address are optional.
+    public ImportReport importStudents(String filename) throws SQLException, IOException {
+        long start = System.currentTimeMillis();
+        ImportReport report = new ImportReport();
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService validators = Executors.newFixedThreadPool(threads);
+        CsvReader reader = new CsvReader(filename);
+        
+        try {
+            List<String> header = reader.readRow();
+            if (header == null) {
+                throw new IOException("File is empty: " + filename);
+            }
+            Map<String, Integer> columns = columnIndex(header, "first_name", "last_name", "email", 
+                                                       "grade12_percentage", "category");
+            
+            // Emails seen so far in this file, lower-cased
+            Set<String> seenEmails = new HashSet<String>();
+            List<List<String>> rows = new ArrayList<List<String>>(chunkSize);
+            List<Integer> lineNumbers = new ArrayList<Integer>(chunkSize);
+            
+            List<String> row;
+            while ((row = reader.readRow()) != null) {
+                report.rowRead();
+                rows.add(row);
+                lineNumbers.add(reader.getLineNumber());
+                if (rows.size() == chunkSize) {
+                    importStudentChunk(rows, lineNumbers, columns, seenEmails, validators, threads, report);
+                    rows.clear();
+                    lineNumbers.clear();
+                }
+            }
+            if (!rows.isEmpty()) {
+                importStudentChunk(rows, lineNumbers, columns, seenEmails, validators, threads, report);
+            }
+        } finally {
+            reader.close();
+            validators.shutdownNow();
+        }
+        
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+        System.out.println("Student import finished: " + report);
+        return report;
+    }
+    
+    private void importStudentChunk(List<List<String>> rows, List<Integer> lineNumbers, 
+                                    Map<String, Integer> columns, Set<String> seenEmails,
+                                    ExecutorService validators, int threads, 
+                                    ImportReport report) throws SQLException {
+        // Parse and validate slices of the chunk in parallel
+        Student[] students = new Student[rows.size()];
+        String[] errors = new String[rows.size()];
+        List<Future<?>> futures = new ArrayList<Future<?>>(threads);
+        int sliceSize = (rows.size() + threads - 1) / threads;
+        for (int from = 0; from < rows.size(); from += sliceSize) {
+            futures.add(validators.submit(new StudentParser(rows, columns, from, 
+                                                            Math.min(from + sliceSize, rows.size()), 
+                                                            students, errors)));
+        }
+        waitFor(futures);
+        
+        // De-duplicate within the file, then against the database in one bulk lookup
+        List<Student> candidates = new ArrayList<Student>(rows.size());
+        List<Integer> candidateLines = new ArrayList<Integer>(rows.size());
+        for (int i = 0; i < students.length; i++) {
+            if (errors[i] != null) {
+                report.reject(lineNumbers.get(i), errors[i]);
+            } else if (!seenEmails.add(normalizeEmail(students[i].getEmail()))) {
+                report.reject(lineNumbers.get(i), "Duplicate email in file: " + students[i].getEmail());
+            } else {
+                candidates.add(students[i]);
+                candidateLines.add(lineNumbers.get(i));
+            }
+        }
+        
+        List<String> emails = new ArrayList<String>(candidates.size());
+        for (Student student : candidates) {
+            emails.add(student.getEmail());
+        }
+        Set<String> existing = studentDAO.findExistingEmails(emails);
+        
+        List<Student> toInsert = new ArrayList<Student>(candidates.size());
+        List<Integer> insertLines = new ArrayList<Integer>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            Student student = candidates.get(i);
+            if (existing.contains(normalizeEmail(student.getEmail()))) {
+                report.reject(candidateLines.get(i), "Email already exists: " + student.getEmail());
+            } else {
+                toInsert.add(student);
+                insertLines.add(candidateLines.get(i));
+            }
+        }
+        
+        insertStudents(toInsert, insertLines, report);
+    }
+    
+    // Inserts the chunk in one transaction. If the batch fails (e.g. a concurrent registration
+    // took an email), falls back to row-by-row inserts so only the offending rows are rejected.
+    private void insertStudents(List<Student> students, List<Integer> lineNumbers, 
+                                ImportReport report) throws SQLException {
+        if (students.isEmpty()) {
+            return;
+        }
+        
+        DatabaseConfig.beginTransaction();
+        boolean committed = false;
+        try {
+            int inserted = studentDAO.addStudents(students, batchSize);
+            DatabaseConfig.commitTransaction();
+            committed = true;
+            report.addInserted(inserted);
+            return;
+        } catch (SQLException e) {
+            System.err.println("Batch insert failed, retrying rows individually: " + e.getMessage());
+        } finally {
+            if (!committed) {
+                DatabaseConfig.rollbackTransaction();
+            }
+        }
+        
+        for (int i = 0; i < students.size(); i++) {
+            try {
+                report.addInserted(studentDAO.addStudents(Collections.singletonList(students.get(i)), 1));
+            } catch (SQLException e) {
+                report.reject(lineNumbers.get(i), e.getMessage());
+            }
+        }
+    }
+    
+    // Applies a whole course catalogue keyed by course_code: unknown codes are inserted, known
+    // codes are updated when any value differs. Only course_code is required in the header;
+    // columns left out of the file (or empty cells) keep the current values. New courses also
+    // need course_name and total_seats; their other columns default as in the courses table
+    // (duration 4, cutoffs and fees 0, status ACTIVE). Changes are
+    // applied with batched statements in one transaction, so a failure leaves the catalogue
+    // untouched. Changing total_seats shifts available_seats by the same amount.
+    public ImportReport importCourses(String filename) throws SQLException, IOException {
+        long start = System.currentTimeMillis();
+        ImportReport report = new ImportReport();
+        
+        Map<String, Course> existing = new HashMap<String, Course>();
+        for (Course course : courseDAO.getAllCourses()) {
+            existing.put(course.getCourseCode(), course);
+        }
+        
+        List<Course> toInsert = new ArrayList<Course>();
+        List<Course> toUpdate = new ArrayList<Course>();
+        Set<String> seenCodes = new HashSet<String>();
+        CsvReader reader = new CsvReader(filename);
+        
+        try {
+            List<String> header = reader.readRow();
+            if (header == null) {
+                throw new IOException("File is empty: " + filename);
+            }
+            Map<String, Integer> columns = columnIndex(header, "course_code");
+            
+            List<String> row;
+            while ((row = reader.readRow()) != null) {
+                report.rowRead();
+                String code = field(row, columns, "course_code");
+                if (code == null) {
+                    report.reject(reader.getLineNumber(), "Missing course_code");
+                    continue;
+                }
+                if (!seenCodes.add(code)) {
+                    report.reject(reader.getLineNumber(), "Duplicate course_code in file: " + code);
+                    continue;
+                }
+                
+                Course current = existing.get(code);
+                Course course;
+                if (current == null) {
+                    course = new Course();
+                    course.setDuration(DEFAULT_COURSE_DURATION);
+                } else {
+                    course = new Course(current);
+                }
+                course.setCourseCode(code);
+                try {
+                    applyCourseFields(course, row, columns);
+                } catch (IllegalArgumentException e) {
+                    report.reject(reader.getLineNumber(), e.getMessage());
+                    continue;
+                }
+                if (current == null && (course.getCourseName() == null || course.getTotalSeats() <= 0)) {
+                    report.reject(reader.getLineNumber(), "New course needs course_name and total_seats: " + code);
+                    continue;
+                }
+                if (!admissionService.validateCourseData(course)) {
+                    report.reject(reader.getLineNumber(), "Invalid course data: " + code);
+                    continue;
+                }
+                
+                if (current == null) {
+                    course.setAvailableSeats(course.getTotalSeats());
+                    toInsert.add(course);
+                } else if (sameCatalogueValues(current, course)) {
+                    report.addUnchanged(1);
+                } else {
+                    toUpdate.add(course);
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        
+        if (!toInsert.isEmpty() || !toUpdate.isEmpty()) {
+            DatabaseConfig.beginTransaction();
+            try {
+                int inserted = courseDAO.addCourses(toInsert, batchSize);
+                int updated = courseDAO.updateCourseCatalogue(toUpdate, batchSize);
+                DatabaseConfig.commitTransaction();
+                report.addInserted(inserted);
+                report.addUpdated(updated);
+            } finally {
+                DatabaseConfig.rollbackTransaction();
+            }
+        }
+        
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+        System.out.println("Course catalogue import finished: " + report);
+        return report;
+    }
+    
+    private void applyCourseFields(Course course, List<String> row, Map<String, Integer> columns) {
+        String value;
+        if ((value = field(row, columns, "course_name")) != null) {
+            course.setCourseName(value);
+        }
+        if ((value = field(row, columns, "description")) != null) {
+            course.setDescription(value);
+        }
+        if ((value = field(row, columns, "department")) != null) {
+            course.setDepartment(value);
+        }
+        if ((value = field(row, columns, "duration")) != null) {
+            course.setDuration(parseInt("duration", value));
+        }
+        if ((value = field(row, columns, "total_seats")) != null) {
+            course.setTotalSeats(parseInt("total_seats", value));
+        }
+        if ((value = field(row, columns, "general_cutoff")) != null) {
+            course.setGeneralCutoff(parseDouble("general_cutoff", value));
+        }
+        if ((value = field(row, columns, "obc_cutoff")) != null) {
+            course.setObcCutoff(parseDouble("obc_cutoff", value));
+        }
+        if ((value = field(row, columns, "sc_cutoff")) != null) {
+            course.setScCutoff(parseDouble("sc_cutoff", value));
+        }
+        if ((value = field(row, columns, "st_cutoff")) != null) {
+            course.setStCutoff(parseDouble("st_cutoff", value));
+        }
+        if ((value = field(row, columns, "fees")) != null) {
+            course.setFees(parseDouble("fees", value));
+        }
+        if ((value = field(row, columns, "status")) != null) {
+            value = value.toUpperCase(Locale.ROOT);
+            if (!value.equals("ACTIVE") && !value.equals("INACTIVE")) {
+                throw new IllegalArgumentException("Invalid status: " + value);
+            }
+            course.setStatus(value);
+        }
+    }
+    
+    private boolean sameCatalogueValues(Course a, Course b) {
+        return equal(a.getCourseName(), b.getCourseName())
+                && equal(a.getDescription(), b.getDescription())
+                && equal(a.getDepartment(), b.getDepartment())
+                && equal(a.getStatus(), b.getStatus())
+                && a.getDuration() == b.getDuration()
+                && a.getTotalSeats() == b.getTotalSeats()
+                && Double.compare(a.getGeneralCutoff(), b.getGeneralCutoff()) == 0
+                && Double.compare(a.getObcCutoff(), b.getObcCutoff()) == 0
+                && Double.compare(a.getScCutoff(), b.getScCutoff()) == 0
+                && Double.compare(a.getStCutoff(), b.getStCutoff()) == 0
+                && Double.compare(a.getFees(), b.getFees()) == 0;
+    }
+    
+    private boolean equal(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+    
+    private int parseInt(String column, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+    
+    private double parseDouble(String column, String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+    
+    private class StudentParser implements Runnable {
+        private final List<List<String>> rows;
+        private final Map<String, Integer> columns;
+        private final int from;
+        private final int to;
+        private final Student[] students;
+        private final String[] errors;
+        
+        StudentParser(List<List<String>> rows, Map<String, Integer> columns, int from, int to,
+                      Student[] students, String[] errors) {
+            this.rows = rows;
+            this.columns = columns;
+            this.from = from;
+            this.to = to;
+            this.students = students;
+            this.errors = errors;
+        }
+        
+        public void run() {
+            for (int i = from; i < to; i++) {
+                try {
+                    Student student = parseStudent(rows.get(i), columns);
+                    if (admissionService.validateStudentData(student)) {
+                        students[i] = student;
+                    } else {
+                        errors[i] = "Invalid student data";
+                    }
+                } catch (IllegalArgumentException e) {
+                    errors[i] = e.getMessage();
+                }
+            }
+        }
+    }
+    
+    private Student parseStudent(List<String> row, Map<String, Integer> columns) {
+        Student student = new Student();
+        student.setFirstName(field(row, columns, "first_name"));
+        student.setLastName(field(row, columns, "last_name"));
+        student.setEmail(field(row, columns, "email"));
+        student.setPhone(field(row, columns, "phone"));
+        student.setAddress(field(row, columns, "address"));
+        
+        String percentage = field(row, columns, "grade12_percentage");
+        if (percentage == null) {
+            throw new IllegalArgumentException("Missing grade12_percentage");
+        }
+        try {
+            student.setGrade12Percentage(Double.parseDouble(percentage));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid grade12_percentage: " + percentage);
+        }
+        
+        String category = field(row, columns, "category");
+        if (category != null) {
+            category = category.toUpperCase(Locale.ROOT);
+            if (!category.equals("GENERAL") && !category.equals("OBC") 
+                    && !category.equals("SC") && !category.equals("ST")) {
+                throw new IllegalArgumentException("Invalid category: " + category);
+            }
+        }
+        student.setCategory(category);
+        
+        String dateOfBirth = field(row, columns, "date_of_birth");
+        if (dateOfBirth != null) {
+            try {
+                student.setDateOfBirth(java.sql.Date.valueOf(dateOfBirth));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid date_of_birth (expected yyyy-MM-dd): " + dateOfBirth);
+            }
+        }
+        return student;
+    }
+    
+    // Column name -> position from the header row; fails if a required column is missing
+    private Map<String, Integer> columnIndex(List<String> header, String... required) throws IOException {
+        Map<String, Integer> columns = new HashMap<String, Integer>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String column : required) {
+            if (!columns.containsKey(column)) {
+                throw new IOException("Missing required column: " + column);
+            }
+        }
+        return columns;
+    }
+    
+    // Trimmed value of the named column, or null when absent or empty
+    private String field(List<String> row, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= row.size()) {
+            return null;
+        }
+        String value = row.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+    
+    private String normalizeEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private void waitFor(List<Future<?>> futures) throws SQLException {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted during import", e);
+            } catch (ExecutionException e) {
+                throw new SQLException("Import worker failed: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.college.admission.service;
+
+// Outcome of the admission run for a single course
+public class CourseAdmissionResult {
+    private final int courseId;
+    private final String courseName;
+    private int approved;
+    private int waitlisted;
+    private int rejected;
+    private int seatsRemaining;
+    private long elapsedMillis;
+    private String error;
+
+    public CourseAdmissionResult(int courseId, String courseName) {
+        this.courseId = courseId;
+        this.courseName = courseName;
+    }
+
+    public int getCourseId() {
+        return courseId;
+    }
+
+    public String getCourseName() {
+        return courseName;
+    }
+
+    public int getApproved() {
+        return approved;
+    }
+
+    public int getWaitlisted() {
+        return waitlisted;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public int getSeatsRemaining() {
+        return seatsRemaining;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    // Null when the course was committed successfully
+    public String getError() {
+        return error;
+    }
+
+    public boolean isSuccessful() {
+        return error == null;
+    }
+
+    void recordDecision(String status) {
+        if ("APPROVED".equals(status)) {
+            approved++;
+        } else if ("WAITLISTED".equals(status)) {
+            waitlisted++;
+        } else if ("REJECTED".equals(status)) {
+            rejected++;
+        }
+    }
+
+    void setSeatsRemaining(int seatsRemaining) {
+        this.seatsRemaining = seatsRemaining;
+    }
+
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "CourseAdmissionResult{" +
+                "courseId=" + courseId +
+                ", courseName='" + courseName + '\'' +
+                ", approved=" + approved +
+                ", waitlisted=" + waitlisted +
+                ", rejected=" + rejected +
+                ", seatsRemaining=" + seatsRemaining +
+                ", elapsedMillis=" + elapsedMillis +
+                (error != null ? ", error='" + error + '\'' : "") +
+                '}';
+    }
+}
@@ -0,0 +1,36 @@
+package com.college.admission.service;
+
+// Outcome of a CSV export: where it went, how many data rows, and how fast
+public class ExportReport {
+    private final String filename;
+    private final long rows;
+    private final long elapsedMillis;
+
+    public ExportReport(String filename, long rows, long elapsedMillis) {
+        this.filename = filename;
+        this.rows = rows;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedMillis > 0 ? rows * 1000.0 / elapsedMillis : rows;
+    }
+
+    @Override
+    public String toString() {
+        return filename + ": " + rows + " rows in " + elapsedMillis + " ms (" + 
+               String.format("%.0f", getRowsPerSecond()) + " rows/s)";
+    }
+}
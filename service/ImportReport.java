@@ -0,0 +1,113 @@
+package com.college.admission.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Outcome of a bulk import: row counts plus the reason each rejected row was skipped
+public class ImportReport {
+    // Only the first errors are kept in memory; getRejected() still counts all of them
+    private static final int MAX_RECORDED_ERRORS = 10000;
+
+    private long rowsRead;
+    private long inserted;
+    private long updated;
+    private long unchanged;
+    private long rejected;
+    private long elapsedMillis;
+    private final List<RowError> errors = new ArrayList<RowError>();
+
+    void rowRead() {
+        rowsRead++;
+    }
+
+    void addInserted(long count) {
+        inserted += count;
+    }
+
+    void addUpdated(long count) {
+        updated += count;
+    }
+
+    void addUnchanged(long count) {
+        unchanged += count;
+    }
+
+    void reject(int lineNumber, String message) {
+        rejected++;
+        if (errors.size() < MAX_RECORDED_ERRORS) {
+            errors.add(new RowError(lineNumber, message));
+        }
+    }
+
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getInserted() {
+        return inserted;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public long getUnchanged() {
+        return unchanged;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedMillis > 0 ? rowsRead * 1000.0 / elapsedMillis : rowsRead;
+    }
+
+    public List<RowError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    @Override
+    public String toString() {
+        return "ImportReport{" +
+                "rowsRead=" + rowsRead +
+                ", inserted=" + inserted +
+                ", updated=" + updated +
+                ", unchanged=" + unchanged +
+                ", rejected=" + rejected +
+                ", elapsedMillis=" + elapsedMillis +
+                '}';
+    }
+
+    public static class RowError {
+        private final int lineNumber;
+        private final String message;
+
+        public RowError(int lineNumber, String message) {
+            this.lineNumber = lineNumber;
+            this.message = message;
+        }
+
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "Line " + lineNumber + ": " + message;
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package com.college.admission.service;
+
+import com.college.admission.dao.ApplicationDAO;
+import com.college.admission.dao.CourseDAO;
+import com.college.admission.dao.RowHandler;
+import com.college.admission.model.Application;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory merit order of the (non-withdrawn) applications of each course, overall and per
+// student category. Entries are packed into one long each and kept in order-statistic treaps:
+//
+//   key = (10000 - merit in hundredths) << 32 | applicationId
+//
+// so ascending key order is merit descending, ties broken by lower application id. Queries
+// return keys; use applicationId(key) / meritScore(key) to unpack them. Submissions, withdrawals
+// and rank lookups cost O(log n) per course; topK and range cost O(log n + k).
+//
+// A course is loaded from the database on first use; courses missing from the courses table
+// are answered empty and not kept. AdmissionService reports submissions, withdrawals and
+// deletions after they commit. A change to a course that is still loading waits for the load
+// and is applied on top of it; a change to a course with no entry at all is ignored, since a
+// later load starts after the commit and reads it.
+public class MeritIndex {
+
+    private static final int MAX_MERIT_HUNDREDTHS = 10000;
+
+    private final ApplicationDAO applicationDAO;
+    private final CourseDAO courseDAO;
+    private final ConcurrentHashMap<Integer, CourseIndex> courses = new ConcurrentHashMap<Integer, CourseIndex>();
+
+    MeritIndex(ApplicationDAO applicationDAO, CourseDAO courseDAO) {
+        this.applicationDAO = applicationDAO;
+        this.courseDAO = courseDAO;
+    }
+
+    public static long key(double meritScore, int applicationId) {
+        long hundredths = Math.round(meritScore * 100);
+        hundredths = Math.max(0, Math.min(MAX_MERIT_HUNDREDTHS, hundredths));
+        return ((MAX_MERIT_HUNDREDTHS - hundredths) << 32) | (applicationId & 0xffffffffL);
+    }
+
+    public static int applicationId(long key) {
+        return (int) key;
+    }
+
+    public static double meritScore(long key) {
+        return (MAX_MERIT_HUNDREDTHS - (key >>> 32)) / 100.0;
+    }
+
+    // The k best applications for the course; category null means all categories
+    public long[] topK(int courseId, String category, int k) throws SQLException {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative");
+        }
+        CourseIndex index = load(courseId);
+        index.lock.readLock().lock();
+        try {
+            SortedKeys keys = index.keys(category);
+            return keys == null ? new long[0] : keys.slice(0, Math.min(k, keys.size()));
+        } finally {
+            index.lock.readLock().unlock();
+        }
+    }
+
+    // Applications with minMerit <= merit <= maxMerit, best first
+    public long[] range(int courseId, String category, double minMerit, double maxMerit) throws SQLException {
+        CourseIndex index = load(courseId);
+        index.lock.readLock().lock();
+        try {
+            SortedKeys keys = index.keys(category);
+            if (keys == null || minMerit > maxMerit) {
+                return new long[0];
+            }
+            int from = keys.lowerBound(key(maxMerit, 0));
+            int to = keys.lowerBound(key(minMerit, -1) + 1);
+            return keys.slice(from, Math.max(from, to));
+        } finally {
+            index.lock.readLock().unlock();
+        }
+    }
+
+    public int size(int courseId, String category) throws SQLException {
+        CourseIndex index = load(courseId);
+        index.lock.readLock().lock();
+        try {
+            SortedKeys keys = index.keys(category);
+            return keys == null ? 0 : keys.size();
+        } finally {
+            index.lock.readLock().unlock();
+        }
+    }
+
+    // Position of the student's application in the course's merit lists, or null when the
+    // student has no non-withdrawn application for the course. O(log n) tree descents only.
+    public MeritRank rank(int courseId, int studentId) throws SQLException {
+        CourseIndex index = load(courseId);
+        index.lock.readLock().lock();
+        try {
+            Integer applicationId = index.applicationByStudent.get(studentId);
+            if (applicationId == null) {
+                return null;
+            }
+            Member member = index.members.get(applicationId);
+            SortedKeys categoryKeys = index.byCategory.get(member.category);
+            // Competition rank: everyone with a strictly higher merit, plus one
+            long firstWithSameMerit = key(meritScore(member.key), 0);
+            return new MeritRank(applicationId, studentId, courseId, meritScore(member.key), member.category,
+                                 index.all.lowerBound(member.key) + 1, index.all.size(),
+                                 index.all.lowerBound(firstWithSameMerit) + 1,
+                                 categoryKeys.lowerBound(member.key) + 1, categoryKeys.size(),
+                                 categoryKeys.lowerBound(firstWithSameMerit) + 1);
+        } finally {
+            index.lock.readLock().unlock();
+        }
+    }
+
+    public boolean isLoaded(int courseId) {
+        CourseIndex index = courses.get(courseId);
+        return index != null && index.loaded;
+    }
+
+    // Loaded or loading; only changes to such courses need to be reported
+    boolean isTracked(int courseId) {
+        return courses.containsKey(courseId);
+    }
+
+    public int getLoadedCourseCount() {
+        return courses.size();
+    }
+
+    // Adds or moves an application. Waits for a load in progress; a no-op for courses with no entry
+    void add(int courseId, int applicationId, int studentId, double meritScore, String category) {
+        CourseIndex index = courses.get(courseId);
+        if (index == null) {
+            return;
+        }
+        index.lock.writeLock().lock();
+        try {
+            if (index.loaded) {
+                index.add(applicationId, studentId, meritScore, category);
+            }
+        } finally {
+            index.lock.writeLock().unlock();
+        }
+    }
+
+    void remove(int courseId, int applicationId) {
+        CourseIndex index = courses.get(courseId);
+        if (index == null) {
+            return;
+        }
+        index.lock.writeLock().lock();
+        try {
+            if (index.loaded) {
+                index.remove(applicationId);
+            }
+        } finally {
+            index.lock.writeLock().unlock();
+        }
+    }
+
+    void invalidateCourse(int courseId) {
+        courses.remove(courseId);
+    }
+
+    void clear() {
+        courses.clear();
+    }
+
+    CourseIndex load(int courseId) throws SQLException {
+        CourseIndex index = courses.get(courseId);
+        if (index == null) {
+            CourseIndex created = new CourseIndex();
+            index = courses.putIfAbsent(courseId, created);
+            if (index == null) {
+                index = created;
+            }
+        }
+        if (index.loaded) {
+            return index;
+        }
+
+        // Loaded under the write lock: changes reported meanwhile wait and are applied on top
+        index.lock.writeLock().lock();
+        try {
+            if (!index.loaded) {
+                final CourseIndex target = index;
+                applicationDAO.streamMeritEntries(courseId, new RowHandler<Application>() {
+                    public void handle(Application application) {
+                        target.add(application.getApplicationId(), application.getStudentId(),
+                                   application.getMeritScore(), application.getStudentCategory());
+                    }
+                });
+                index.loaded = true;
+                if (target.members.isEmpty() && courseDAO.getCourseById(courseId) == null) {
+                    // Unknown course: answer empty, but do not keep an entry for it
+                    courses.remove(courseId, index);
+                }
+            }
+        } catch (SQLException e) {
+            courses.remove(courseId, index);
+            throw e;
+        } finally {
+            index.lock.writeLock().unlock();
+        }
+        return index;
+    }
+
+    static class CourseIndex {
+        final ReadWriteLock lock = new ReentrantReadWriteLock();
+        final SortedKeys all = new SortedKeys();
+        final Map<String, SortedKeys> byCategory = new HashMap<String, SortedKeys>();
+        // applicationId -> its key, category and student, so it can be found again
+        final Map<Integer, Member> members = new HashMap<Integer, Member>();
+        final Map<Integer, Integer> applicationByStudent = new HashMap<Integer, Integer>();
+        volatile boolean loaded = false;
+
+        // Caller holds the read lock
+        SortedKeys keys(String category) {
+            return category == null ? all : byCategory.get(category.toUpperCase(Locale.ROOT));
+        }
+
+        // Caller holds the write lock
+        void add(int applicationId, int studentId, double meritScore, String category) {
+            remove(applicationId);
+            String normalized = category == null ? "GENERAL" : category.toUpperCase(Locale.ROOT);
+            long key = key(meritScore, applicationId);
+            all.insert(key);
+            SortedKeys categoryKeys = byCategory.get(normalized);
+            if (categoryKeys == null) {
+                categoryKeys = new SortedKeys();
+                byCategory.put(normalized, categoryKeys);
+            }
+            categoryKeys.insert(key);
+            members.put(applicationId, new Member(key, normalized, studentId));
+            applicationByStudent.put(studentId, applicationId);
+        }
+
+        // Caller holds the write lock
+        void remove(int applicationId) {
+            Member member = members.remove(applicationId);
+            if (member == null) {
+                return;
+            }
+            all.remove(member.key);
+            SortedKeys categoryKeys = byCategory.get(member.category);
+            if (categoryKeys != null) {
+                categoryKeys.remove(member.key);
+            }
+            applicationByStudent.remove(member.studentId);
+        }
+    }
+
+    static class Member {
+        final long key;
+        final String category;
+        final int studentId;
+
+        Member(long key, String category, int studentId) {
+            this.key = key;
+            this.category = category;
+            this.studentId = studentId;
+        }
+    }
+
+    // Treap over distinct keys; each node counts its subtree so positions can be found by descent.
+    // insert, remove and lowerBound are O(log n) expected, slice is O(log n + length)
+    static class SortedKeys {
+        private Node root;
+
+        int size() {
+            return size(root);
+        }
+
+        void insert(long key) {
+            if (contains(key)) {
+                return;
+            }
+            Node[] parts = split(root, key);
+            root = merge(merge(parts[0], new Node(key)), parts[1]);
+        }
+
+        void remove(long key) {
+            Node[] parts = split(root, key);
+            Node[] rest = split(parts[1], key + 1);
+            root = merge(parts[0], rest[1]);
+        }
+
+        // Number of keys < the given key, i.e. the index of the first key >= it
+        int lowerBound(long key) {
+            int count = 0;
+            Node node = root;
+            while (node != null) {
+                if (node.key < key) {
+                    count += size(node.left) + 1;
+                    node = node.right;
+                } else {
+                    node = node.left;
+                }
+            }
+            return count;
+        }
+
+        // Keys at positions [from, to) in ascending order
+        long[] slice(int from, int to) {
+            to = Math.min(to, size());
+            if (from >= to) {
+                return new long[0];
+            }
+            long[] out = new long[to - from];
+            collect(root, 0, from, to, out);
+            return out;
+        }
+
+        private boolean contains(long key) {
+            Node node = root;
+            while (node != null) {
+                if (key == node.key) {
+                    return true;
+                }
+                node = key < node.key ? node.left : node.right;
+            }
+            return false;
+        }
+
+        // In-order walk of the subtree whose first key sits at position offset; skips
+        // subtrees entirely outside [from, to)
+        private static void collect(Node node, int offset, int from, int to, long[] out) {
+            if (node == null || offset >= to || offset + node.size <= from) {
+                return;
+            }
+            int position = offset + size(node.left);
+            collect(node.left, offset, from, to, out);
+            if (position >= from && position < to) {
+                out[position - from] = node.key;
+            }
+            collect(node.right, position + 1, from, to, out);
+        }
+
+        // [keys < key, keys >= key]
+        private static Node[] split(Node node, long key) {
+            if (node == null) {
+                return new Node[2];
+            }
+            if (node.key < key) {
+                Node[] parts = split(node.right, key);
+                node.right = parts[0];
+                node.update();
+                parts[0] = node;
+                return parts;
+            }
+            Node[] parts = split(node.left, key);
+            node.left = parts[1];
+            node.update();
+            parts[1] = node;
+            return parts;
+        }
+
+        // Every key in left is below every key in right
+        private static Node merge(Node left, Node right) {
+            if (left == null) {
+                return right;
+            }
+            if (right == null) {
+                return left;
+            }
+            if (left.priority > right.priority) {
+                left.right = merge(left.right, right);
+                left.update();
+                return left;
+            }
+            right.left = merge(left, right.left);
+            right.update();
+            return right;
+        }
+
+        private static int size(Node node) {
+            return node == null ? 0 : node.size;
+        }
+    }
+
+    static class Node {
+        final long key;
+        final int priority = ThreadLocalRandom.current().nextInt();
+        Node left;
+        Node right;
+        int size = 1;
+
+        Node(long key) {
+            this.key = key;
+        }
+
+        void update() {
+            size = 1 + SortedKeys.size(left) + SortedKeys.size(right);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.college.admission.service;
+
+// A student's position in a course merit list. Ranks are 1-based. rank orders tied merit
+// scores by application id; competitionRank gives tied students the same rank ("1, 2, 2, 4").
+public class MeritRank {
+    private final int applicationId;
+    private final int studentId;
+    private final int courseId;
+    private final double meritScore;
+    private final String category;
+    private final int overallRank;
+    private final int overallTotal;
+    private final int overallCompetitionRank;
+    private final int categoryRank;
+    private final int categoryTotal;
+    private final int categoryCompetitionRank;
+
+    MeritRank(int applicationId, int studentId, int courseId, double meritScore, String category,
+              int overallRank, int overallTotal, int overallCompetitionRank,
+              int categoryRank, int categoryTotal, int categoryCompetitionRank) {
+        this.applicationId = applicationId;
+        this.studentId = studentId;
+        this.courseId = courseId;
+        this.meritScore = meritScore;
+        this.category = category;
+        this.overallRank = overallRank;
+        this.overallTotal = overallTotal;
+        this.overallCompetitionRank = overallCompetitionRank;
+        this.categoryRank = categoryRank;
+        this.categoryTotal = categoryTotal;
+        this.categoryCompetitionRank = categoryCompetitionRank;
+    }
+
+    public int getApplicationId() {
+        return applicationId;
+    }
+
+    public int getStudentId() {
+        return studentId;
+    }
+
+    public int getCourseId() {
+        return courseId;
+    }
+
+    public double getMeritScore() {
+        return meritScore;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public int getOverallRank() {
+        return overallRank;
+    }
+
+    public int getOverallTotal() {
+        return overallTotal;
+    }
+
+    public int getOverallCompetitionRank() {
+        return overallCompetitionRank;
+    }
+
+    public int getCategoryRank() {
+        return categoryRank;
+    }
+
+    public int getCategoryTotal() {
+        return categoryTotal;
+    }
+
+    public int getCategoryCompetitionRank() {
+        return categoryCompetitionRank;
+    }
+
+    @Override
+    public String toString() {
+        return "MeritRank{student=" + studentId + ", course=" + courseId +
+                ", merit=" + String.format("%.2f", meritScore) +
+                ", overall=" + overallRank + "/" + overallTotal +
+                ", " + category + "=" + categoryRank + "/" + categoryTotal + "}";
+    }
+}
@@ -0,0 +1,504 @@
+package com.college.admission.service;
+
+import com.college.admission.dao.ApplicationDAO;
+import com.college.admission.model.Application;
+import com.college.admission.util.DatabaseConfig;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Write-behind mode for application submissions. submit() records the submission in a local
+// journal (forced to disk) and queues it; a flusher thread inserts queued submissions in
+// batches, one transaction per batch, and completes each caller's future with the generated
+// application id. Submissions that were journaled but never resolved (e.g. after a crash)
+// are re-queued when the queue is next opened on the same journal file.
+//
+// Journal forces are group-committed: a submitter forces everything written so far, and
+// submitters whose records that force covered return without forcing again. When every
+// submission is resolved the journal is truncated in place; once resolved records take up
+// most of a journal past COMPACT_THRESHOLD_BYTES it is rewritten with only the unresolved ones.
+//
+// close() drains the queue; a shutdown hook calls it if the application does not.
+//
+// Journal records, one per line:
+//   S,<seq>,<studentId>,<courseId>,<preference>,<applicationDateMillis>   submission accepted
+//   D,<seq>                                                             submission resolved
+public class SubmissionQueue {
+
+    private static final int DEFAULT_CAPACITY = 10000;
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final long DEFAULT_MAX_WAIT_MS = 50;
+    private static final long COMPACT_THRESHOLD_BYTES = 8L * 1024 * 1024;
+
+    private final ApplicationDAO applicationDAO;
+    private final AdmissionService admissionService;
+    private final File journalFile;
+    private final int batchSize;
+    private final long maxWaitMillis;
+
+    private final Semaphore capacity;
+    private final LinkedBlockingQueue<PendingSubmission> queue = new LinkedBlockingQueue<PendingSubmission>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong committed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    // Submissions journaled but not yet queued; close() waits for them too
+    private final AtomicInteger intake = new AtomicInteger();
+    // Lock order: forceLock before journalLock
+    private final Object journalLock = new Object();
+    private final Object forceLock = new Object();
+    private RandomAccessFile journal;
+    private FileChannel journalChannel;
+    // Journal records of submissions not yet resolved, by sequence; compaction rewrites these
+    private final Map<Long, String> unresolved = new LinkedHashMap<Long, String>();
+    private long unresolvedBytes = 0;
+    // Bytes ever appended, and how many of them are known to be on disk
+    private long journalWritten = 0;
+    private volatile long journalForced = 0;
+
+    private final Thread flusher;
+    private final Thread shutdownHook;
+    private volatile boolean closed = false;
+
+    public SubmissionQueue(AdmissionService admissionService, String journalPath) throws IOException {
+        this(admissionService, journalPath, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE, DEFAULT_MAX_WAIT_MS);
+    }
+
+    public SubmissionQueue(AdmissionService admissionService, String journalPath, int capacity,
+                           int batchSize, long maxWaitMillis) throws IOException {
+        if (capacity <= 0 || batchSize <= 0 || maxWaitMillis <= 0) {
+            throw new IllegalArgumentException("Capacity, batch size and max wait must be greater than 0");
+        }
+        this.applicationDAO = new ApplicationDAO();
+        this.admissionService = admissionService;
+        this.journalFile = new File(journalPath);
+        this.batchSize = batchSize;
+        this.maxWaitMillis = maxWaitMillis;
+        this.capacity = new Semaphore(capacity, true);
+
+        List<PendingSubmission> recovered = readJournal();
+        for (PendingSubmission submission : recovered) {
+            // Recovered submissions are always re-queued, even beyond the configured capacity
+            queue.add(submission);
+            String record = submissionRecord(submission);
+            unresolved.put(submission.sequence, record);
+            unresolvedBytes += recordBytes(record);
+        }
+        // Start from a journal holding only the recovered submissions
+        rewriteJournal();
+        if (!recovered.isEmpty()) {
+            System.out.println("Recovered " + recovered.size() + " unflushed submissions from " + journalPath);
+        }
+
+        this.flusher = new Thread(new Runnable() {
+            public void run() {
+                flushLoop();
+            }
+        }, "submission-flusher");
+        // Daemon so it cannot keep the JVM alive; the shutdown hook drains what is still queued
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+
+        this.shutdownHook = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    close();
+                } catch (Exception e) {
+                    System.err.println("Error closing submission queue on shutdown: " + e.getMessage());
+                }
+            }
+        }, "submission-queue-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    // Blocks for up to the timeout while the queue is full, then fails with an SQLException.
+    // Once this returns the submission is durable in the journal; the future completes with
+    // the application id after the batch containing it commits.
+    public CompletableFuture<Integer> submit(int studentId, int courseId, int preference,
+                                             long timeout, TimeUnit unit) throws SQLException {
+        if (closed) {
+            throw new SQLException("Submission queue is closed");
+        }
+        try {
+            if (!capacity.tryAcquire(timeout, unit)) {
+                throw new SQLException("Submission queue is full, try again later");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for submission queue capacity", e);
+        }
+
+        PendingSubmission submission = new PendingSubmission(sequence.incrementAndGet(),
+                                                             new Application(studentId, courseId, preference), true);
+        String record = submissionRecord(submission);
+        long written;
+        try {
+            synchronized (journalLock) {
+                if (closed) {
+                    throw new SQLException("Submission queue is closed");
+                }
+                appendToJournal(record);
+                unresolved.put(submission.sequence, record);
+                unresolvedBytes += recordBytes(record);
+                written = journalWritten;
+                intake.incrementAndGet();
+            }
+        } catch (IOException e) {
+            capacity.release();
+            throw new SQLException("Could not journal submission: " + e.getMessage(), e);
+        } catch (SQLException e) {
+            capacity.release();
+            throw e;
+        }
+
+        try {
+            forceJournal(written);
+            queue.add(submission);
+        } catch (IOException e) {
+            // Not acknowledged: mark it resolved so it is neither flushed nor replayed
+            resolve(Collections.singletonList(submission));
+            throw new SQLException("Could not journal submission: " + e.getMessage(), e);
+        } finally {
+            intake.decrementAndGet();
+        }
+        return submission.future;
+    }
+
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    public long getCommittedCount() {
+        return committed.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    // Stops accepting submissions, flushes everything already queued and closes the journal.
+    // Safe to call more than once.
+    public void close() throws InterruptedException, IOException {
+        synchronized (journalLock) {
+            closed = true;
+        }
+        // Not interrupted: an interrupt mid-flush would fail the pool's connection acquire.
+        // The flusher polls with a short timeout and exits once the queue is empty.
+        flusher.join();
+        synchronized (forceLock) {
+            synchronized (journalLock) {
+                journalChannel.close();
+                journal.close();
+            }
+        }
+        if (Thread.currentThread() != shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // Already shutting down
+            }
+        }
+    }
+
+    private void flushLoop() {
+        List<PendingSubmission> batch = new ArrayList<PendingSubmission>(batchSize);
+        while (true) {
+            try {
+                PendingSubmission first = queue.poll(maxWaitMillis, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (batch.isEmpty()) {
+                if (closed && intake.get() == 0 && queue.isEmpty()) {
+                    return;
+                }
+                continue;
+            }
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void flush(List<PendingSubmission> batch) {
+        batches.incrementAndGet();
+        // Merit comes from the cached students; unknown students or courses fail right away
+        List<PendingSubmission> valid = new ArrayList<PendingSubmission>(batch.size());
+        List<Application> applications = new ArrayList<Application>(batch.size());
+        for (PendingSubmission submission : batch) {
+            try {
+                admissionService.setMeritScore(submission.application);
+                valid.add(submission);
+                applications.add(submission.application);
+            } catch (SQLException e) {
+                failed.incrementAndGet();
+                submission.future.completeExceptionally(e);
+            }
+        }
+        if (valid.isEmpty()) {
+            resolve(batch);
+            return;
+        }
+
+        boolean groupCommitted = false;
+        try {
+            DatabaseConfig.beginTransaction();
+            try {
+                if (applicationDAO.addApplications(applications) == applications.size()) {
+                    DatabaseConfig.commitTransaction();
+                    groupCommitted = true;
+                }
+            } finally {
+                DatabaseConfig.rollbackTransaction();
+            }
+        } catch (SQLException e) {
+            System.err.println("Group commit of " + valid.size() + " submissions failed, " +
+                               "retrying individually: " + e.getMessage());
+        }
+
+        if (groupCommitted) {
+            admissionService.indexSubmittedApplications(applications);
+            for (PendingSubmission submission : valid) {
+                committed.incrementAndGet();
+                submission.future.complete(submission.application.getApplicationId());
+            }
+        } else {
+            // One bad row (missing student or course, duplicate) must not fail its neighbours
+            for (PendingSubmission submission : valid) {
+                Application application = submission.application;
+                try {
+                    int applicationId = applicationDAO.addApplication(application);
+                    if (applicationId == -1) {
+                        throw new SQLException("No application id returned for student " + application.getStudentId());
+                    }
+                    admissionService.indexSubmittedApplications(Collections.singletonList(application));
+                    committed.incrementAndGet();
+                    submission.future.complete(applicationId);
+                } catch (SQLException e) {
+                    failed.incrementAndGet();
+                    submission.future.completeExceptionally(admissionService.translateSubmissionError(
+                            e, application.getStudentId(), application.getCourseId()));
+                }
+            }
+        }
+
+        resolve(batch);
+    }
+
+    private void resolve(List<PendingSubmission> batch) {
+        synchronized (forceLock) {
+            synchronized (journalLock) {
+                try {
+                    StringBuilder records = new StringBuilder();
+                    for (PendingSubmission submission : batch) {
+                        String record = unresolved.remove(submission.sequence);
+                        if (record != null) {
+                            unresolvedBytes -= recordBytes(record);
+                        }
+                        records.append("D,").append(submission.sequence).append('\n');
+                    }
+                    records.setLength(records.length() - 1);
+
+                    if (unresolved.isEmpty()) {
+                        // Everything journaled so far is in the database; start over in place
+                        journalChannel.truncate(0);
+                        journalChannel.position(0);
+                    } else if (journalChannel.size() > Math.max(COMPACT_THRESHOLD_BYTES, 2 * unresolvedBytes)) {
+                        // Mostly resolved records: keep only the unresolved ones
+                        rewriteJournal();
+                    } else {
+                        appendToJournal(records.toString());
+                    }
+                } catch (IOException e) {
+                    // Worst case the resolved submissions are replayed and rejected as duplicates
+                    System.err.println("Error updating submission journal: " + e.getMessage());
+                }
+            }
+        }
+        for (PendingSubmission submission : batch) {
+            if (submission.holdsCapacity) {
+                capacity.release();
+            }
+        }
+    }
+
+    // Returns once the first 'written' journal bytes are on disk. One caller forces for all
+    // records appended so far; the others wait on forceLock and find their bytes covered.
+    private void forceJournal(long written) throws IOException {
+        synchronized (forceLock) {
+            if (journalForced >= written) {
+                return;
+            }
+            long upTo;
+            FileChannel channel;
+            synchronized (journalLock) {
+                upTo = journalWritten;
+                channel = journalChannel;
+            }
+            channel.force(false);
+            journalForced = upTo;
+        }
+    }
+
+    // Caller holds journalLock
+    private void appendToJournal(String record) throws IOException {
+        byte[] bytes = (record + "\n").getBytes(StandardCharsets.UTF_8);
+        journalChannel.write(ByteBuffer.wrap(bytes));
+        journalWritten += bytes.length;
+    }
+
+    // Replaces the journal with one holding only the unresolved submissions: written to a
+    // temporary file, forced, then renamed over the journal. Caller holds forceLock and
+    // journalLock, or is the constructor.
+    private void rewriteJournal() throws IOException {
+        File compacted = new File(journalFile.getPath() + ".tmp");
+        RandomAccessFile out = new RandomAccessFile(compacted, "rw");
+        try {
+            FileChannel channel = out.getChannel();
+            channel.truncate(0);
+            StringBuilder records = new StringBuilder();
+            for (String record : unresolved.values()) {
+                records.append(record).append('\n');
+            }
+            channel.write(ByteBuffer.wrap(records.toString().getBytes(StandardCharsets.UTF_8)));
+            channel.force(false);
+        } finally {
+            out.close();
+        }
+
+        Files.move(compacted.toPath(), journalFile.toPath(),
+                   StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(journalFile.getAbsoluteFile().getParentFile());
+        if (journalChannel != null) {
+            journalChannel.close();
+            journal.close();
+        }
+        journal = new RandomAccessFile(journalFile, "rw");
+        journalChannel = journal.getChannel();
+        journalChannel.position(journalChannel.size());
+        // Everything appended before the rewrite is either resolved or in the forced new file
+        journalForced = journalWritten;
+    }
+
+    // Makes the rename durable. Not every platform can open a directory (Windows cannot);
+    // there the rename is left to the file system.
+    private static void forceDirectory(File directory) {
+        if (directory == null) {
+            return;
+        }
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ);
+            channel.force(true);
+        } catch (IOException e) {
+            // Directory sync unsupported here
+        } finally {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    // nothing left to do
+                }
+            }
+        }
+    }
+
+    private static String submissionRecord(PendingSubmission submission) {
+        Application application = submission.application;
+        return "S," + submission.sequence + "," + application.getStudentId() + "," + application.getCourseId() +
+               "," + application.getPreference() + "," + application.getApplicationDate().getTime();
+    }
+
+    private static long recordBytes(String record) {
+        return record.length() + 1;
+    }
+
+    // Unresolved submissions from a previous run, in journal order
+    private List<PendingSubmission> readJournal() throws IOException {
+        Map<Long, PendingSubmission> pending = new LinkedHashMap<Long, PendingSubmission>();
+        Set<Long> resolved = new HashSet<Long>();
+        if (!journalFile.exists()) {
+            return new ArrayList<PendingSubmission>();
+        }
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new FileInputStream(journalFile), StandardCharsets.UTF_8));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(",");
+                try {
+                    if (parts.length == 6 && parts[0].equals("S")) {
+                        long seq = Long.parseLong(parts[1]);
+                        Application application = new Application(Integer.parseInt(parts[2]),
+                                                                  Integer.parseInt(parts[3]),
+                                                                  Integer.parseInt(parts[4]));
+                        application.setApplicationDate(new Date(Long.parseLong(parts[5])));
+                        pending.put(seq, new PendingSubmission(seq, application, false));
+                        sequence.set(Math.max(sequence.get(), seq));
+                    } else if (parts.length == 2 && parts[0].equals("D")) {
+                        resolved.add(Long.parseLong(parts[1]));
+                    }
+                } catch (NumberFormatException e) {
+                    // A torn last line from a crash mid-write; that submission was never acknowledged
+                }
+            }
+        } finally {
+            reader.close();
+        }
+
+        List<PendingSubmission> recovered = new ArrayList<PendingSubmission>();
+        for (PendingSubmission submission : pending.values()) {
+            if (!resolved.contains(submission.sequence)) {
+                recovered.add(submission);
+            }
+        }
+        return recovered;
+    }
+
+    private static class PendingSubmission {
+        final long sequence;
+        final Application application;
+        final boolean holdsCapacity;
+        final CompletableFuture<Integer> future = new CompletableFuture<Integer>();
+
+        PendingSubmission(long sequence, Application application, boolean holdsCapacity) {
+            this.sequence = sequence;
+            this.application = application;
+            this.holdsCapacity = holdsCapacity;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.college.admission.util;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+// Bounded JDBC connection pool. Connections handed out are proxies whose close()
+// returns the physical connection to the pool instead of closing it. Each physical
+// connection keeps its own PreparedStatement cache (see StatementCache).
+public class ConnectionPool implements DataSource {
+
+    private final String url;
+    private final Properties props;
+    private final int minSize;
+    private final int maxSize;
+    private final long acquireTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long validationIdleMillis;
+    private final int validationTimeoutSeconds;
+    private final int statementCacheSize;
+
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<PooledEntry> idle = new ConcurrentLinkedDeque<PooledEntry>();
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed = false;
+
+    public ConnectionPool(String url, Properties props, int minSize, int maxSize,
+                          long acquireTimeoutMillis, long idleTimeoutMillis, long validationIdleMillis,
+                          int validationTimeoutSeconds, int statementCacheSize) {
+        if (minSize < 0 || maxSize <= 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.props = props;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.validationIdleMillis = validationIdleMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "connection-pool-evictor");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        long period = Math.max(1000L, idleTimeoutMillis / 2);
+        this.evictor.scheduleWithFixedDelay(new Runnable() {
+            public void run() {
+                evictIdleConnections();
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+
+        prewarm();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + acquireTimeoutMillis +
+                                       " ms waiting for a database connection (pool size " + maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PooledEntry entry;
+            while ((entry = idle.pollFirst()) != null) {
+                if (isUsable(entry)) {
+                    return wrap(entry);
+                }
+                discard(entry);
+            }
+            return wrap(createEntry());
+        } catch (SQLException e) {
+            permits.release();
+            throw e;
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pooled connections use the configured credentials");
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public int getOpenCount() {
+        return openConnections.get();
+    }
+
+    public int getActiveCount() {
+        return maxSize - permits.availablePermits();
+    }
+
+    public long getStatementCacheHits() {
+        return statementCacheHits.get();
+    }
+
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.get();
+    }
+
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            discard(entry);
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    private PooledEntry createEntry() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, props);
+        openConnections.incrementAndGet();
+        return new PooledEntry(physical, new StatementCache(physical, statementCacheSize,
+                                                            statementCacheHits, statementCacheMisses));
+    }
+
+    // Opens minSize connections up front; if the database is not reachable yet the pool
+    // starts empty and connects on first use instead
+    private void prewarm() {
+        try {
+            while (idle.size() < minSize) {
+                idle.offerLast(createEntry());
+            }
+        } catch (SQLException e) {
+            System.err.println("Could not pre-open pooled connections: " + e.getMessage());
+        }
+    }
+
+    // Validation on borrow: idle-expired connections are dropped, and only connections that
+    // sat idle long enough to have been dropped by the server are pinged
+    private boolean isUsable(PooledEntry entry) {
+        long idleFor = System.currentTimeMillis() - entry.lastReturned;
+        if (idleFor > idleTimeoutMillis) {
+            return false;
+        }
+        if (idleFor <= validationIdleMillis) {
+            return true;
+        }
+        try {
+            return entry.physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(PooledEntry entry) {
+        try {
+            if (closed || entry.physical.isClosed()) {
+                discard(entry);
+                return;
+            }
+            // Never hand the next borrower a connection with an open transaction
+            if (!entry.physical.getAutoCommit()) {
+                entry.physical.rollback();
+                entry.physical.setAutoCommit(true);
+            }
+            if (entry.physical.getTransactionIsolation() != entry.defaultIsolation) {
+                entry.physical.setTransactionIsolation(entry.defaultIsolation);
+            }
+            entry.lastReturned = System.currentTimeMillis();
+            idle.offerFirst(entry);
+        } catch (SQLException e) {
+            discard(entry);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledEntry entry) {
+        openConnections.decrementAndGet();
+        try {
+            entry.physical.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing pooled connection: " + e.getMessage());
+        }
+    }
+
+    private void evictIdleConnections() {
+        long now = System.currentTimeMillis();
+        Iterator<PooledEntry> it = idle.descendingIterator();
+        while (it.hasNext() && idle.size() > minSize) {
+            PooledEntry entry = it.next();
+            if (now - entry.lastReturned > idleTimeoutMillis && idle.remove(entry)) {
+                discard(entry);
+            }
+        }
+    }
+
+    private Connection wrap(PooledEntry entry) {
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new PooledConnectionHandler(entry));
+    }
+
+    private static class PooledEntry {
+        final Connection physical;
+        final StatementCache statements;
+        final int defaultIsolation;
+        volatile long lastReturned;
+
+        PooledEntry(Connection physical, StatementCache statements) throws SQLException {
+            this.physical = physical;
+            this.statements = statements;
+            this.defaultIsolation = physical.getTransactionIsolation();
+            this.lastReturned = System.currentTimeMillis();
+        }
+    }
+
+    private class PooledConnectionHandler implements InvocationHandler {
+        private final PooledEntry entry;
+        private boolean returned = false;
+
+        PooledConnectionHandler(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("close".equals(name)) {
+                if (!returned) {
+                    returned = true;
+                    release(entry);
+                }
+                return null;
+            }
+            if ("isClosed".equals(name)) {
+                return returned || entry.physical.isClosed();
+            }
+            if ("equals".equals(name)) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(name)) {
+                return System.identityHashCode(proxy);
+            }
+            if ("toString".equals(name)) {
+                return "PooledConnection[" + entry.physical + "]";
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            if ("prepareStatement".equals(name) && args.length <= 2 && args.length >= 1
+                    && (args.length == 1 || args[1] instanceof Integer)) {
+                int autoGeneratedKeys = args.length == 2 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+                return entry.statements.prepare((String) args[0], autoGeneratedKeys);
+            }
+            try {
+                return method.invoke(entry.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    // DataSource boilerplate
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return DriverManager.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        DriverManager.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        DriverManager.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return DriverManager.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this);
+    }
+}
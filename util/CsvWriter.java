@@ -0,0 +1,89 @@
+package com.college.admission.util;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+// Buffered CSV writer with RFC 4180 style quoting and optional gzip compression
+public class CsvWriter implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Writer writer;
+    private long rowsWritten = 0;
+
+    public CsvWriter(String filename, boolean gzip) throws IOException {
+        this(openFile(filename, gzip));
+    }
+
+    private CsvWriter(OutputStream out) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private static OutputStream openFile(String filename, boolean gzip) throws IOException {
+        OutputStream out = new FileOutputStream(filename);
+        if (!gzip) {
+            return out;
+        }
+        try {
+            return new GZIPOutputStream(out, BUFFER_SIZE);
+        } catch (IOException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    // Writes one record; null fields are written as empty
+    public void writeRow(Object... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeField(fields[i] == null ? "" : fields[i].toString());
+        }
+        writer.write('\n');
+        rowsWritten++;
+    }
+
+    // Rows written so far, including any header rows
+    public long getRowsWritten() {
+        return rowsWritten;
+    }
+
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void writeField(String value) throws IOException {
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                needsQuotes = true;
+                break;
+            }
+        }
+        if (!needsQuotes) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+}
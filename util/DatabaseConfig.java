@@ -1,9 +1,18 @@
 package com.college.admission.util;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.sql.DataSource;
 
 public class DatabaseConfig {
     private static final String DB_URL = "jdbc:mysql://localhost:3306/college_admission";
@@ -11,7 +20,25 @@ public class DatabaseConfig {
     private static final String DB_PASSWORD = "root";
     private static final String DB_DRIVER = "com.mysql.jdbc.Driver";
     
-    private static Connection connection = null;
+    // Connection pool settings
+    private static final int POOL_MIN_SIZE = 2;
+    private static final int POOL_MAX_SIZE = 20;
+    private static final long POOL_ACQUIRE_TIMEOUT_MS = 30000;
+    private static final long POOL_IDLE_TIMEOUT_MS = 600000;
+    private static final long POOL_VALIDATE_AFTER_IDLE_MS = 5000; // ping on borrow only after this long idle
+    private static final int POOL_VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final int STATEMENT_CACHE_SIZE = 64; // per connection, 0 disables
+    private static final int STREAM_FETCH_SIZE = 1000; // rows per round trip for streaming reads
+    
+    private static volatile ConnectionPool dataSource = null;
+    // A lock rather than synchronized: creating the pool opens connections, and a virtual thread
+    // blocked in a monitor would pin its carrier
+    private static final ReentrantLock dataSourceLock = new ReentrantLock();
+    
+    // Connection bound to the current thread while a transaction is open
+    private static final ThreadLocal<Connection> transactionConnection = new ThreadLocal<Connection>();
+    // Callbacks to run once the current thread's transaction commits or rolls back
+    private static final ThreadLocal<List<Runnable>> transactionCallbacks = new ThreadLocal<List<Runnable>>();
     
     static {
         try {
@@ -22,41 +49,197 @@ public class DatabaseConfig {
         }
     }
     
+    public static DataSource getDataSource() {
+        ConnectionPool pool = dataSource;
+        if (pool != null && !pool.isClosed()) {
+            return pool;
+        }
+        dataSourceLock.lock();
+        try {
+            if (dataSource == null || dataSource.isClosed()) {
+                dataSource = new ConnectionPool(DB_URL, createConnectionProperties(DB_USERNAME, DB_PASSWORD),
+                                                POOL_MIN_SIZE, POOL_MAX_SIZE, POOL_ACQUIRE_TIMEOUT_MS,
+                                                POOL_IDLE_TIMEOUT_MS, POOL_VALIDATE_AFTER_IDLE_MS,
+                                                POOL_VALIDATION_TIMEOUT_SECONDS, STATEMENT_CACHE_SIZE);
+            }
+            return dataSource;
+        } finally {
+            dataSourceLock.unlock();
+        }
+    }
+    
+    // Borrows a connection from the pool; callers must close() it to return it.
+    // Inside a transaction the thread's transaction connection is returned instead,
+    // and close() on it is a no-op until the transaction ends.
     public static Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            try {
-                Properties props = new Properties();
-                props.setProperty("user", DB_USERNAME);
-                props.setProperty("password", DB_PASSWORD);
-                props.setProperty("useSSL", "false");
-                props.setProperty("serverTimezone", "UTC");
-                props.setProperty("allowPublicKeyRetrieval", "true");
-                
-                connection = DriverManager.getConnection(DB_URL, props);
-                System.out.println("Database connection established successfully.");
-            } catch (SQLException e) {
-                System.err.println("Failed to create database connection: " + e.getMessage());
-                throw e;
+        Connection txConnection = transactionConnection.get();
+        if (txConnection != null) {
+            return nonClosing(txConnection);
+        }
+        try {
+            return getDataSource().getConnection();
+        } catch (SQLException e) {
+            System.err.println("Failed to obtain database connection: " + e.getMessage());
+            throw e;
+        }
+    }
+    
+    // Transaction management
+    public static void beginTransaction() throws SQLException {
+        beginTransaction(-1);
+    }
+    
+    // isolationLevel is one of the Connection.TRANSACTION_* constants, or -1 for the connection default.
+    // The pool restores the default isolation when the connection is returned.
+    public static void beginTransaction(int isolationLevel) throws SQLException {
+        if (transactionConnection.get() != null) {
+            throw new SQLException("A transaction is already active on this thread");
+        }
+        Connection conn = getConnection();
+        try {
+            if (isolationLevel != -1) {
+                conn.setTransactionIsolation(isolationLevel);
+            }
+            conn.setAutoCommit(false);
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+        transactionConnection.set(conn);
+    }
+    
+    public static void commitTransaction() throws SQLException {
+        Connection conn = transactionConnection.get();
+        if (conn == null) {
+            throw new SQLException("No active transaction to commit");
+        }
+        try {
+            conn.commit();
+        } finally {
+            endTransaction(conn);
+        }
+    }
+    
+    // Safe to call from a finally block; does nothing if the transaction already ended
+    public static void rollbackTransaction() {
+        Connection conn = transactionConnection.get();
+        if (conn == null) {
+            return;
+        }
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            System.err.println("Error rolling back transaction: " + e.getMessage());
+        } finally {
+            endTransaction(conn);
+        }
+    }
+    
+    public static boolean isInTransaction() {
+        return transactionConnection.get() != null;
+    }
+    
+    // Runs the callback when the current transaction ends (commit or rollback), or right away
+    // when no transaction is active. Used to invalidate caches once other threads can see a write.
+    public static void runAfterTransaction(Runnable callback) {
+        if (transactionConnection.get() == null) {
+            callback.run();
+            return;
+        }
+        List<Runnable> callbacks = transactionCallbacks.get();
+        if (callbacks == null) {
+            callbacks = new ArrayList<Runnable>();
+            transactionCallbacks.set(callbacks);
+        }
+        callbacks.add(callback);
+    }
+    
+    private static void endTransaction(Connection conn) {
+        transactionConnection.remove();
+        List<Runnable> callbacks = transactionCallbacks.get();
+        transactionCallbacks.remove();
+        try {
+            conn.setAutoCommit(true);
+        } catch (SQLException e) {
+            System.err.println("Error resetting auto-commit: " + e.getMessage());
+        }
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            System.err.println("Error returning transaction connection: " + e.getMessage());
+        }
+        if (callbacks != null) {
+            for (Runnable callback : callbacks) {
+                try {
+                    callback.run();
+                } catch (RuntimeException e) {
+                    System.err.println("Error in after-transaction callback: " + e.getMessage());
+                }
             }
         }
-        return connection;
+    }
+    
+    private static Connection nonClosing(final Connection conn) {
+        return (Connection) Proxy.newProxyInstance(
+                DatabaseConfig.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        if ("close".equals(method.getName())) {
+                            return null;
+                        }
+                        try {
+                            return method.invoke(conn, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+                });
+    }
+    
+    public static int getStreamFetchSize() {
+        return STREAM_FETCH_SIZE;
+    }
+    
+    public static int getMaxPoolSize() {
+        return POOL_MAX_SIZE;
+    }
+    
+    public static long getStatementCacheHits() {
+        ConnectionPool pool = dataSource;
+        return pool != null ? pool.getStatementCacheHits() : 0;
+    }
+    
+    public static long getStatementCacheMisses() {
+        ConnectionPool pool = dataSource;
+        return pool != null ? pool.getStatementCacheMisses() : 0;
     }
     
     public static void closeConnection() {
-        if (connection != null) {
-            try {
-                connection.close();
-                System.out.println("Database connection closed.");
-            } catch (SQLException e) {
-                System.err.println("Error closing database connection: " + e.getMessage());
+        dataSourceLock.lock();
+        try {
+            if (dataSource != null) {
+                dataSource.close();
+                dataSource = null;
+                System.out.println("Database connection pool closed.");
             }
+        } finally {
+            dataSourceLock.unlock();
         }
     }
     
     public static boolean testConnection() {
         try {
             Connection conn = getConnection();
-            return conn != null && !conn.isClosed();
+            try {
+                boolean valid = conn.isValid(POOL_VALIDATION_TIMEOUT_SECONDS);
+                if (valid) {
+                    System.out.println("Database connection established successfully.");
+                }
+                return valid;
+            } finally {
+                conn.close();
+            }
         } catch (SQLException e) {
             System.err.println("Database connection test failed: " + e.getMessage());
             return false;
@@ -66,17 +249,27 @@ public class DatabaseConfig {
     // Method to get connection with custom parameters
     public static Connection getConnection(String url, String username, String password) throws SQLException {
         try {
-            Properties props = new Properties();
-            props.setProperty("user", username);
-            props.setProperty("password", password);
-            props.setProperty("useSSL", "false");
-            props.setProperty("serverTimezone", "UTC");
-            props.setProperty("allowPublicKeyRetrieval", "true");
-            
-            return DriverManager.getConnection(url, props);
+            return DriverManager.getConnection(url, createConnectionProperties(username, password));
         } catch (SQLException e) {
             System.err.println("Failed to create custom database connection: " + e.getMessage());
             throw e;
         }
     }
+    
+    private static Properties createConnectionProperties(String username, String password) {
+        Properties props = new Properties();
+        props.setProperty("user", username);
+        props.setProperty("password", password);
+        props.setProperty("useSSL", "false");
+        props.setProperty("serverTimezone", "UTC");
+        props.setProperty("allowPublicKeyRetrieval", "true");
+        // Server-side prepares make the per-connection statement cache skip re-parsing
+        props.setProperty("useServerPrepStmts", "true");
+        // Lets the driver send JDBC batches as multi-row statements
+        props.setProperty("rewriteBatchedStatements", "true");
+        // Statements with a fetch size read through a server-side cursor instead of
+        // buffering the whole result set in memory
+        props.setProperty("useCursorFetch", "true");
+        return props;
+    }
 }
\ No newline at end of file
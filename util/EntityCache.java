@@ -0,0 +1,250 @@
+package com.college.admission.util;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bounded LRU cache of entities keyed by integer id, with an optional secondary string key
+// (e.g. course code, email). Values are copied on the way in and out so callers can never
+// mutate a cached instance.
+//
+// Stale fills are prevented with versions: a reader takes stamp(id) (or secondaryStamp() for
+// lookups by secondary key) before querying the database and passes it to put(); every
+// invalidate() bumps the versions, so a value read before a concurrent write is dropped
+// instead of cached. Entries also expire after a TTL as a safety net for writes made outside
+// this process.
+public class EntityCache<V> {
+
+    public interface Copier<V> {
+        V copy(V value);
+    }
+
+    private static final int VERSION_STRIPES = 64;
+
+    private final String name;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Copier<V> copier;
+
+    private final LinkedHashMap<Integer, Entry<V>> entries;
+    private final Map<String, Integer> secondaryIndex = new HashMap<String, Integer>();
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+    private final AtomicLong globalVersion = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong rejectedFills = new AtomicLong();
+    private final AtomicLong hitAgeTotalMillis = new AtomicLong();
+
+    public EntityCache(String name, final int maxEntries, long ttlMillis, Copier<V> copier) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Cache size must be greater than 0");
+        }
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.copier = copier;
+        this.entries = new LinkedHashMap<Integer, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry<V>> eldest) {
+                if (size() > EntityCache.this.maxEntries) {
+                    removeSecondary(eldest.getValue());
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // Returns a copy of the cached value, or null on a miss
+    public V get(int id) {
+        synchronized (this) {
+            Entry<V> entry = entries.get(id);
+            if (entry != null && !isExpired(entry, id)) {
+                return hit(entry);
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public V getBySecondaryKey(String key) {
+        synchronized (this) {
+            Integer id = secondaryIndex.get(key);
+            if (id != null) {
+                Entry<V> entry = entries.get(id);
+                if (entry != null && !isExpired(entry, id)) {
+                    return hit(entry);
+                }
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    // Version to capture before reading the entity by id from the database
+    public long stamp(int id) {
+        return versions.get(stripe(id));
+    }
+
+    // Version to capture before reading an entity by its secondary key (id not yet known)
+    public long secondaryStamp() {
+        return globalVersion.get();
+    }
+
+    // Caches the value read under the given stamp, unless the entity was invalidated since
+    public synchronized void put(int id, String secondaryKey, V value, long stamp) {
+        if (versions.get(stripe(id)) != stamp) {
+            rejectedFills.incrementAndGet();
+            return;
+        }
+        putEntry(id, secondaryKey, value);
+    }
+
+    public synchronized void putBySecondaryKey(int id, String secondaryKey, V value, long secondaryStamp) {
+        if (globalVersion.get() != secondaryStamp) {
+            rejectedFills.incrementAndGet();
+            return;
+        }
+        putEntry(id, secondaryKey, value);
+    }
+
+    public synchronized void invalidate(int id) {
+        versions.incrementAndGet(stripe(id));
+        globalVersion.incrementAndGet();
+        Entry<V> entry = entries.remove(id);
+        if (entry != null) {
+            removeSecondary(entry);
+            invalidations.incrementAndGet();
+        }
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i < VERSION_STRIPES; i++) {
+            versions.incrementAndGet(i);
+        }
+        globalVersion.incrementAndGet();
+        invalidations.addAndGet(entries.size());
+        entries.clear();
+        secondaryIndex.clear();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0.0 : (double) hits.get() / total;
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getExpirations() {
+        return expirations.get();
+    }
+
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    // Fills dropped because the entity changed while it was being read
+    public long getRejectedFills() {
+        return rejectedFills.get();
+    }
+
+    // How old, on average, the cached data was when it was served
+    public double getAverageHitAgeMillis() {
+        long count = hits.get();
+        return count == 0 ? 0.0 : (double) hitAgeTotalMillis.get() / count;
+    }
+
+    @Override
+    public String toString() {
+        return name + " cache{size=" + getSize() + "/" + maxEntries +
+                ", hitRate=" + String.format("%.3f", getHitRate()) +
+                ", hits=" + hits.get() + ", misses=" + misses.get() +
+                ", evictions=" + evictions.get() + ", expirations=" + expirations.get() +
+                ", invalidations=" + invalidations.get() + ", rejectedFills=" + rejectedFills.get() +
+                ", avgHitAgeMs=" + String.format("%.0f", getAverageHitAgeMillis()) + "}";
+    }
+
+    private V hit(Entry<V> entry) {
+        hits.incrementAndGet();
+        hitAgeTotalMillis.addAndGet(System.currentTimeMillis() - entry.loadedAt);
+        return copier.copy(entry.value);
+    }
+
+    // Caller holds the lock
+    private boolean isExpired(Entry<V> entry, int id) {
+        if (ttlMillis > 0 && System.currentTimeMillis() - entry.loadedAt > ttlMillis) {
+            entries.remove(id);
+            removeSecondary(entry);
+            expirations.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    // Caller holds the lock
+    private void putEntry(int id, String secondaryKey, V value) {
+        Entry<V> previous = entries.put(id, new Entry<V>(id, copier.copy(value), secondaryKey));
+        if (previous != null) {
+            removeSecondary(previous);
+        }
+        if (secondaryKey != null) {
+            secondaryIndex.put(secondaryKey, id);
+        }
+    }
+
+    private void removeSecondary(Entry<V> entry) {
+        // Only if the key still points at this entry; another id may have taken it over since
+        if (entry.secondaryKey != null) {
+            Integer id = secondaryIndex.get(entry.secondaryKey);
+            if (id != null && id == entry.id) {
+                secondaryIndex.remove(entry.secondaryKey);
+            }
+        }
+    }
+
+    private int stripe(int id) {
+        return (id & 0x7fffffff) % VERSION_STRIPES;
+    }
+
+    private static class Entry<V> {
+        final int id;
+        final V value;
+        final String secondaryKey;
+        final long loadedAt = System.currentTimeMillis();
+
+        Entry(int id, V value, String secondaryKey) {
+            this.id = id;
+            this.value = value;
+            this.secondaryKey = secondaryKey;
+        }
+    }
+}
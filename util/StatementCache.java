@@ -0,0 +1,165 @@
+package com.college.admission.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// LRU cache of PreparedStatements for a single physical connection, keyed by SQL text.
+// Statements handed out are proxies whose close() parks the statement back in the cache.
+class StatementCache {
+
+    private final Connection physical;
+    private final int maxSize;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final LinkedHashMap<String, CachedStatement> statements;
+    // A pooled connection is only used by one thread at a time, but the evictor and pool
+    // shutdown may close the physical connection concurrently. A ReentrantLock rather than a
+    // monitor, and never held across a network call, so virtual threads do not pin their carrier.
+    private final ReentrantLock lock = new ReentrantLock();
+
+    StatementCache(Connection physical, final int maxSize, AtomicLong hits, AtomicLong misses) {
+        this.physical = physical;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.statements = new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() > maxSize) {
+                    eldest.getValue().evict();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // The prepare round trip runs outside the lock; the new statement is published under it
+    PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+        if (maxSize <= 0) {
+            misses.incrementAndGet();
+            return physical.prepareStatement(sql, autoGeneratedKeys);
+        }
+
+        String key = autoGeneratedKeys + ":" + sql;
+        lock.lock();
+        try {
+            CachedStatement cached = statements.get(key);
+            if (cached != null && !cached.inUse && !cached.statement.isClosed()) {
+                hits.incrementAndGet();
+                cached.inUse = true;
+                return cached.proxy;
+            }
+        } finally {
+            lock.unlock();
+        }
+        misses.incrementAndGet();
+
+        PreparedStatement statement = physical.prepareStatement(sql, autoGeneratedKeys);
+        lock.lock();
+        try {
+            CachedStatement cached = statements.get(key);
+            if (cached != null && cached.inUse) {
+                // Same SQL is already open on this connection (e.g. nested use); do not cache the second one
+                return statement;
+            }
+            if (cached != null) {
+                cached.evict();
+            }
+            CachedStatement entry = new CachedStatement(statement);
+            entry.inUse = true;
+            statements.put(key, entry);
+            return entry.proxy;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return statements.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private class CachedStatement implements InvocationHandler {
+        final PreparedStatement statement;
+        final PreparedStatement proxy;
+        boolean inUse = false;
+        boolean evicted = false;
+
+        CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                    StatementCache.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class },
+                    this);
+        }
+
+        void evict() {
+            evicted = true;
+            if (!inUse) {
+                closeQuietly();
+            }
+        }
+
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("close".equals(name)) {
+                lock.lock();
+                try {
+                    if (!inUse) {
+                        return null;
+                    }
+                    inUse = false;
+                    if (evicted) {
+                        closeQuietly();
+                    } else {
+                        try {
+                            statement.clearParameters();
+                            statement.clearBatch();
+                        } catch (SQLException e) {
+                            closeQuietly();
+                        }
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                return null;
+            }
+            if ("isClosed".equals(name)) {
+                return !inUse || statement.isClosed();
+            }
+            if ("equals".equals(name)) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(name)) {
+                return System.identityHashCode(proxy);
+            }
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                // statement is being discarded anyway
+            }
+        }
+    }
+}